@@ -0,0 +1,60 @@
+package todo.custom.cook.book.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Synthetic cook books with a realistic shape, i.e., few groups, a limited
+ * vocabulary of ingredients and several steps per recipe. Equal seeds produce
+ * equal cook books.
+ */
+public final class CookBookGenerator {
+    private static final String[] GROUPS = { "Vorspeisen", "Suppen", "Salate", "Hauptgerichte", "Beilagen", "Soßen", "Desserts", "Kuchen", "Brot", "Getränke", "Frühstück", "Snacks" };
+    private static final String[] INGREDIENTS = { "Mehl", "Zucker", "Butter", "Eier", "Milch", "Salz", "Pfeffer", "Zwiebeln", "Knoblauch", "Tomaten", "Kartoffeln", "Möhren", "Sahne", "Käse", "Öl", "Reis", "Nudeln", "Hähnchen", "Rinderhack", "Paprika", "Zucchini", "Spinat", "Äpfel", "Zitrone", "Petersilie" };
+    private static final String[] UNITS = { "g", "kg", "ml", "l", "EL", "TL", "Stück", "Prise" };
+    private static final String[] WORDS = { "schneiden", "anbraten", "köcheln", "würzen", "rühren", "backen", "abgießen", "mischen", "servieren", "ziehen", "lassen", "die", "das", "mit", "und", "bei", "mittlerer", "Hitze", "Minuten", "Ofen", "Pfanne", "Topf", "Schüssel" };
+
+    private CookBookGenerator() {
+    }
+
+    public static CookBook generate(final int numberOfRecipes, final long seed) {
+	final Random random = new Random(seed);
+	final Set<Recipe> recipes = new HashSet<>();
+	for (int i = 0; i < numberOfRecipes; i++) {
+	    recipes.add(generateRecipe(i, random));
+	}
+	return new CookBook("Benchmark Kochbuch", "JMH", recipes);
+    }
+
+    private static Recipe generateRecipe(final int index, final Random random) {
+	final String name = String.format("%s %s %d", INGREDIENTS[random.nextInt(INGREDIENTS.length)], WORDS[random.nextInt(WORDS.length)], index);
+	final List<String> steps = new ArrayList<>();
+	final int numberOfSteps = 3 + random.nextInt(8);
+	for (int i = 0; i < numberOfSteps; i++) {
+	    final StringBuilder step = new StringBuilder();
+	    final int numberOfWords = 5 + random.nextInt(20);
+	    for (int j = 0; j < numberOfWords; j++) {
+		step.append(WORDS[random.nextInt(WORDS.length)])
+			.append(' ');
+	    }
+	    steps.add(step.toString()
+		    .trim());
+	}
+	final Set<Ingredient> ingredients = new HashSet<>();
+	final int numberOfIngredients = 3 + random.nextInt(10);
+	for (int i = 0; i < numberOfIngredients; i++) {
+	    final String amount = (1 + random.nextInt(500)) + " " + UNITS[random.nextInt(UNITS.length)];
+	    ingredients.add(new Ingredient(INGREDIENTS[random.nextInt(INGREDIENTS.length)], amount));
+	}
+	final String duration = (10 + random.nextInt(170)) + " Minuten";
+	final String numberOfPortions = String.valueOf(1 + random.nextInt(8));
+	return new Recipe(name, steps, duration, GROUPS[random.nextInt(GROUPS.length)], numberOfPortions, ingredients);
+    }
+}
@@ -0,0 +1,68 @@
+package todo.custom.cook.book.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.io.CookBookIO;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CookBookIOBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    private int numberOfRecipes;
+
+    private Path directory;
+    private CookBook cookBook;
+    private CookBookIO cookBookIO;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+	directory = Files.createTempDirectory("cook-book-benchmark");
+	cookBook = CookBookGenerator.generate(numberOfRecipes, 42);
+	cookBookIO = new CookBookIO(directory.resolve("cookBook.json"));
+	cookBookIO.store(cookBook);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+	try (final Stream<Path> files = Files.walk(directory)) {
+	    for (final Path file : files.sorted(Comparator.reverseOrder())
+		    .toList()) {
+		Files.delete(file);
+	    }
+	}
+    }
+
+    @Benchmark
+    public CookBook get() {
+	return cookBookIO.get();
+    }
+
+    @Benchmark
+    public void store() {
+	cookBookIO.store(cookBook);
+    }
+}
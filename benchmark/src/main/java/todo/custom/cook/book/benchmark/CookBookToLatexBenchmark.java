@@ -0,0 +1,58 @@
+package todo.custom.cook.book.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.latex.CookBookToLatex;
+import todo.custom.cook.book.latex.RecipeFragmentCache;
+import todo.jlatex.LatexDocument;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CookBookToLatexBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    private int numberOfRecipes;
+
+    @Param({ "true", "false" })
+    private boolean renderInParallel;
+
+    private CookBook cookBook;
+    private RecipeFragmentCache warmRecipeFragmentCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+	cookBook = CookBookGenerator.generate(numberOfRecipes, 42);
+	warmRecipeFragmentCache = new RecipeFragmentCache();
+	// the chapters are only rendered on demand, which fills the cache
+	new CookBookToLatex(cookBook, warmRecipeFragmentCache, renderInParallel).get();
+    }
+
+    // first export, every recipe is rendered
+    @Benchmark
+    public LatexDocument cold() {
+	return new CookBookToLatex(cookBook, new RecipeFragmentCache(), renderInParallel).get();
+    }
+
+    // re-export of an unchanged cook book, every recipe fragment is cached
+    @Benchmark
+    public LatexDocument warm() {
+	return new CookBookToLatex(cookBook, warmRecipeFragmentCache, renderInParallel).get();
+    }
+}
@@ -0,0 +1,71 @@
+package todo.custom.cook.book.benchmark;
+
+import java.awt.GraphicsEnvironment;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.ui.CookBookEditor;
+import todo.custom.cook.book.ui.RecipeEditor;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditorBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    private int numberOfRecipes;
+
+    private CookBook cookBook;
+
+    @Setup(Level.Trial)
+    public void setup() {
+	cookBook = CookBookGenerator.generate(numberOfRecipes, 42);
+    }
+
+    // Swing components without a frame, i.e., also works in headless mode
+    @Benchmark
+    public List<RecipeEditor> recipeEditors() {
+	final List<RecipeEditor> recipeEditors = new ArrayList<>(cookBook.recipes()
+		.size());
+	for (final Recipe recipe : cookBook.recipes()) {
+	    recipeEditors.add(new RecipeEditor(recipe));
+	}
+	return recipeEditors;
+    }
+
+    @Benchmark
+    public CookBookEditor cookBookEditor() throws InterruptedException, InvocationTargetException {
+	if (GraphicsEnvironment.isHeadless()) {
+	    throw new IllegalStateException("The cook book editor opens a frame, which requires a display");
+	}
+	final AtomicReference<CookBookEditor> cookBookEditor = new AtomicReference<>();
+	SwingUtilities.invokeAndWait(() -> {
+	    cookBookEditor.set(new CookBookEditor(cookBook));
+	    cookBookEditor.get()
+		    .close();
+	});
+	return cookBookEditor.get();
+    }
+}
@@ -3,18 +3,23 @@ package todo.custom.cook.book;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Optional;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
-import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.batch.BatchExport;
 import todo.custom.cook.book.io.CookBookIO;
+import todo.custom.cook.book.io.ShardedCookBookIO;
 import todo.custom.cook.book.ui.CookBookEditor;
 import todo.custom.cook.book.ui.UICustomization;
 
 public class Main {
+    private static final boolean SHARDED_STORAGE = Boolean.getBoolean("cookbook.storage.sharded");
+
     public static void main(final String[] commandLineArguments) throws IOException {
+	if (commandLineArguments.length > 0) {
+	    System.exit(BatchExport.run(commandLineArguments));
+	}
 	Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
 	    e.printStackTrace();
 	    final StringWriter sw = new StringWriter();
@@ -24,13 +29,14 @@ public class Main {
 	    System.exit(1);
 	});
 	final CookBookIO cookBookIO = new CookBookIO();
-	final Optional<CookBook> storedCookBook = cookBookIO.cookBookExists() ? Optional.of(cookBookIO.get()) : Optional.empty();
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO();
 	UICustomization.initialize();
 	SwingUtilities.invokeLater(() -> {
-	    if (storedCookBook.isPresent()) {
-		new CookBookEditor(storedCookBook.get());
-	    } else {
-		new CookBookEditor();
+	    final CookBookEditor cookBookEditor = new CookBookEditor();
+	    if (SHARDED_STORAGE) {
+		cookBookEditor.load(shardedCookBookIO);
+	    } else if (cookBookIO.cookBookExists()) {
+		cookBookEditor.load(cookBookIO);
 	    }
 	});
     }
@@ -0,0 +1,309 @@
+package todo.custom.cook.book.batch;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.io.CookBookIO;
+import todo.custom.cook.book.io.ShardedCookBookIO;
+import todo.custom.cook.book.latex.DocumentPdfExport;
+import todo.custom.cook.book.latex.ExportCache;
+import todo.custom.cook.book.latex.RecipeFragmentCache;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.search.NearDuplicateDetector;
+import todo.custom.cook.book.shopping.ShoppingList;
+import todo.custom.cook.book.util.SortedRecipeIndex;
+
+/*
+ * Headless export of any number of cook books. Every cook book is loaded,
+ * rendered and compiled by a job of its own in a directory of its own, the
+ * number of pdflatex processes is bounded by the LatexCompiler.
+ */
+public final class BatchExport {
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = """
+	    usage: java -jar custom-cook-book-1.0.0-jar-with-dependencies.jar [--output <directory>] [--jobs <number>] [--tex-only] [--shopping-list] [--find-duplicates] [--metrics] <cook book>...
+
+	    A cook book is a cook book file, a directory of a sharded cook book or a
+	    directory containing such cook books. Every cook book is exported to
+	    <output>/<name>/cookBook.pdf, the output directory defaults to ./export.
+
+	      --output <directory>  directory of the exported cook books
+	      --jobs <number>       number of cook books exported at the same time
+	      --tex-only            only write the LaTeX files, pdflatex is not run
+	      --shopping-list       append the summed up ingredients of all recipes
+	      --find-duplicates     only print groups of nearly identical recipes, nothing is exported
+	      --metrics             print timings and counters of all cook books at the end
+
+	    The number of pdflatex processes is bounded by -Dcookbook.latex.processes,
+	    which defaults to the number of processors.
+	    """;
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    private final Path outputDirectory;
+    private final int numberOfJobs;
+    private final boolean texOnly;
+    private final boolean appendShoppingList;
+    private final PrintStream out;
+
+    public BatchExport(final Path outputDirectory, final int numberOfJobs, final boolean texOnly, final boolean appendShoppingList, final PrintStream out) {
+	this.outputDirectory = outputDirectory;
+	this.numberOfJobs = Math.max(1, numberOfJobs);
+	this.texOnly = texOnly;
+	this.appendShoppingList = appendShoppingList;
+	this.out = out;
+    }
+
+    public static int run(final String[] commandLineArguments) {
+	Path outputDirectory = Path.of("./export");
+	int numberOfJobs = Runtime.getRuntime()
+		.availableProcessors() * 2;
+	boolean texOnly = false;
+	boolean appendShoppingList = false;
+	boolean findDuplicates = false;
+	boolean printMetrics = false;
+	final List<Path> inputs = new ArrayList<>();
+	try {
+	    for (int i = 0; i < commandLineArguments.length; i++) {
+		switch (commandLineArguments[i]) {
+		case "--output" -> outputDirectory = Path.of(commandLineArguments[++i]);
+		case "--jobs" -> numberOfJobs = Integer.parseInt(commandLineArguments[++i]);
+		case "--tex-only" -> texOnly = true;
+		case "--shopping-list" -> appendShoppingList = true;
+		case "--find-duplicates" -> findDuplicates = true;
+		case "--metrics" -> printMetrics = true;
+		case "--help" -> {
+		    System.out.print(USAGE);
+		    return EXIT_SUCCESS;
+		}
+		default -> inputs.add(Path.of(commandLineArguments[i]));
+		}
+	    }
+	} catch (final ArrayIndexOutOfBoundsException | NumberFormatException e) {
+	    System.err.print(USAGE);
+	    return EXIT_USAGE;
+	}
+	if (inputs.isEmpty()) {
+	    System.err.print(USAGE);
+	    return EXIT_USAGE;
+	}
+	final BatchExport batchExport = new BatchExport(outputDirectory, numberOfJobs, texOnly, appendShoppingList, System.out);
+	final int exitCode = findDuplicates ? batchExport.findDuplicates(inputs) : batchExport.export(inputs);
+	if (printMetrics) {
+	    System.out.print(Metrics.dump());
+	}
+	return exitCode;
+    }
+
+    public int export(final List<Path> inputs) {
+	final long start = System.nanoTime();
+	final List<Path> cookBookPaths;
+	try {
+	    cookBookPaths = findCookBooks(inputs);
+	} catch (final IOException e) {
+	    out.println("FAILED    " + e);
+	    return EXIT_FAILURE;
+	}
+	final List<Path> bookDirectories = getBookDirectories(cookBookPaths);
+	final ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfJobs, Math.max(1, cookBookPaths.size())));
+	int numberOfFailures = 0;
+	try {
+	    final List<Future<Result>> results = new ArrayList<>(cookBookPaths.size());
+	    for (int i = 0; i < cookBookPaths.size(); i++) {
+		final Path cookBookPath = cookBookPaths.get(i);
+		final Path bookDirectory = bookDirectories.get(i);
+		results.add(executor.submit(() -> export(cookBookPath, bookDirectory)));
+	    }
+	    for (int i = 0; i < results.size(); i++) {
+		try {
+		    if (results.get(i)
+			    .get()
+			    .status() == Status.FAILED) {
+			numberOfFailures++;
+		    }
+		} catch (final ExecutionException e) {
+		    // export(Path, Path) reports exceptions as a result, but not errors like
+		    // an OutOfMemoryError, the other cook books are exported anyway
+		    numberOfFailures++;
+		    report(new Result(cookBookPaths.get(i), Status.FAILED, bookDirectories.get(i), 0, 0, 0, e));
+		}
+	    }
+	} catch (final InterruptedException e) {
+	    Thread.currentThread()
+		    .interrupt();
+	    return EXIT_FAILURE;
+	} finally {
+	    executor.shutdownNow();
+	}
+	out.printf(Locale.ROOT, "%d cook books exported, %d failed in %d ms%n", cookBookPaths.size() - numberOfFailures, numberOfFailures, toMillis(System.nanoTime() - start));
+	return numberOfFailures == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+    }
+
+    // the cook books are checked one after another, as the detector itself uses all
+    // processors
+    public int findDuplicates(final List<Path> inputs) {
+	final long start = System.nanoTime();
+	final List<Path> cookBookPaths;
+	try {
+	    cookBookPaths = findCookBooks(inputs);
+	} catch (final IOException e) {
+	    out.println("FAILED    " + e);
+	    return EXIT_FAILURE;
+	}
+	final NearDuplicateDetector nearDuplicateDetector = new NearDuplicateDetector();
+	int numberOfFailures = 0;
+	for (final Path cookBookPath : cookBookPaths) {
+	    try {
+		final CookBook cookBook = load(cookBookPath);
+		final long detectionStart = System.nanoTime();
+		final List<NearDuplicateDetector.DuplicateGroup> duplicateGroups = nearDuplicateDetector.find(cookBook.recipes());
+		out.printf(Locale.ROOT, "%-10s %s (%d recipes, %d groups of duplicates in %d ms)%n", "CHECKED", cookBookPath, cookBook.recipes()
+			.size(), duplicateGroups.size(), toMillis(System.nanoTime() - detectionStart));
+		for (final NearDuplicateDetector.DuplicateGroup duplicateGroup : duplicateGroups) {
+		    out.printf(Locale.ROOT, "           %3d %%", Math.round(duplicateGroup.similarity() * 100));
+		    for (final Recipe recipe : duplicateGroup.recipes()) {
+			out.printf(Locale.ROOT, " [%s / %s]", recipe.group(), recipe.name());
+		    }
+		    out.println();
+		}
+	    } catch (final Exception e) {
+		numberOfFailures++;
+		out.printf(Locale.ROOT, "%-10s %s%n", Status.FAILED, cookBookPath);
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+		    out.println("           " + cause);
+		}
+	    }
+	}
+	out.printf(Locale.ROOT, "%d cook books checked, %d failed in %d ms%n", cookBookPaths.size() - numberOfFailures, numberOfFailures, toMillis(System.nanoTime() - start));
+	return numberOfFailures == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+    }
+
+    private Result export(final Path cookBookPath, final Path bookDirectory) {
+	long start = System.nanoTime();
+	long loadTime = 0;
+	long latexTime = 0;
+	Result result;
+	try {
+	    final CookBook cookBook = load(cookBookPath);
+	    loadTime = System.nanoTime() - start;
+	    start = System.nanoTime();
+	    final ExportCache exportCache = new ExportCache(bookDirectory.resolve(texOnly ? "cookBook.tex" : "cookBook.pdf"));
+	    final String contentHash = exportCache.hash(cookBook, (texOnly ? "tex" : "document") + (appendShoppingList ? "+shopping-list" : ""));
+	    if (exportCache.isUpToDate(contentHash)) {
+		result = new Result(cookBookPath, Status.UP_TO_DATE, bookDirectory, loadTime, System.nanoTime() - start, 0, null);
+	    } else {
+		// a cache of its own, as evicting the fragments of other cook books is
+		// pointless
+		final ShoppingList shoppingList = new ShoppingList();
+		if (appendShoppingList) {
+		    for (final Recipe recipe : cookBook.recipes()) {
+			shoppingList.add(recipe);
+		    }
+		}
+		final DocumentPdfExport documentPdfExport = new DocumentPdfExport(cookBook, SortedRecipeIndex.of(cookBook), shoppingList, new RecipeFragmentCache(), bookDirectory);
+		final Path texFile = documentPdfExport.writeLatex();
+		latexTime = System.nanoTime() - start;
+		start = System.nanoTime();
+		final Path outputFile = texOnly ? texFile : documentPdfExport.compile();
+		exportCache.update(contentHash);
+		result = new Result(cookBookPath, Status.EXPORTED, outputFile, loadTime, latexTime, texOnly ? 0 : System.nanoTime() - start, null);
+	    }
+	} catch (final Exception e) {
+	    result = new Result(cookBookPath, Status.FAILED, bookDirectory, loadTime, latexTime, 0, e);
+	}
+	report(result);
+	return result;
+    }
+
+    private CookBook load(final Path cookBookPath) {
+	final CookBookIO cookBookIO = new CookBookIO(cookBookPath);
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(cookBookPath);
+	if (Files.isDirectory(cookBookPath) && shardedCookBookIO.cookBookExists()) {
+	    return shardedCookBookIO.get();
+	} else if (Files.isRegularFile(cookBookPath) && cookBookIO.cookBookExists()) {
+	    return cookBookIO.get();
+	}
+	throw new IllegalStateException("No cook book found at " + cookBookPath);
+    }
+
+    private synchronized void report(final Result result) {
+	out.printf(Locale.ROOT, "%-10s %s -> %s (load %d ms, latex %d ms, pdf %d ms)%n", result.status(), result.cookBookPath(), result.outputPath(), toMillis(result.loadTime()), toMillis(result.latexTime()), toMillis(result.pdfTime()));
+	for (Throwable cause = result.failure(); cause != null; cause = cause.getCause()) {
+	    out.println("           " + cause);
+	}
+    }
+
+    private List<Path> findCookBooks(final List<Path> inputs) throws IOException {
+	final List<Path> cookBookPaths = new ArrayList<>();
+	for (final Path input : inputs) {
+	    if (!Files.isDirectory(input) || Files.exists(input.resolve(MANIFEST_FILE_NAME))) {
+		// a missing file is reported as failed export
+		cookBookPaths.add(input);
+		continue;
+	    }
+	    final List<Path> children = new ArrayList<>();
+	    try (final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(input)) {
+		for (final Path child : directoryStream) {
+		    if (Files.isDirectory(child) ? Files.exists(child.resolve(MANIFEST_FILE_NAME)) : isCookBookFile(child)) {
+			children.add(child);
+		    }
+		}
+	    }
+	    children.sort(null);
+	    cookBookPaths.addAll(children);
+	}
+	return cookBookPaths;
+    }
+
+    private boolean isCookBookFile(final Path filePath) {
+	final String fileName = filePath.getFileName()
+		.toString();
+	return fileName.endsWith(".json") || fileName.endsWith(".ccbk");
+    }
+
+    // cook books with the same name get a numbered directory of their own
+    private List<Path> getBookDirectories(final List<Path> cookBookPaths) {
+	final List<Path> bookDirectories = new ArrayList<>(cookBookPaths.size());
+	final Set<String> usedNames = new HashSet<>();
+	for (final Path cookBookPath : cookBookPaths) {
+	    final Path fileName = cookBookPath.toAbsolutePath()
+		    .normalize()
+		    .getFileName();
+	    final String baseName = fileName == null ? "cookBook" : fileName.toString()
+		    .replaceFirst("\\.[^.]*$", "");
+	    String name = baseName;
+	    for (int i = 2; !usedNames.add(name); i++) {
+		name = baseName + "-" + i;
+	    }
+	    bookDirectories.add(outputDirectory.resolve(name));
+	}
+	return bookDirectories;
+    }
+
+    private static long toMillis(final long nanos) {
+	return nanos / 1_000_000;
+    }
+
+    private enum Status {
+	EXPORTED, UP_TO_DATE, FAILED
+    }
+
+    private record Result(Path cookBookPath, Status status, Path outputPath, long loadTime, long latexTime, long pdfTime, Exception failure) {
+    }
+}
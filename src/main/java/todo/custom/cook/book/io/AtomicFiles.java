@@ -0,0 +1,31 @@
+package todo.custom.cook.book.io;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/*
+ * Replaces files via a temporary sibling, so that a crash never leaves a
+ * partially written file behind.
+ */
+public final class AtomicFiles {
+    private AtomicFiles() {
+    }
+
+    public static Path createSibling(final Path filePath) throws IOException {
+	final Path directory = filePath.toAbsolutePath()
+		.getParent();
+	return Files.createTempFile(directory, filePath.getFileName()
+		.toString(), ".tmp");
+    }
+
+    public static void replace(final Path source, final Path target) throws IOException {
+	try {
+	    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	} catch (final AtomicMoveNotSupportedException e) {
+	    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+    }
+}
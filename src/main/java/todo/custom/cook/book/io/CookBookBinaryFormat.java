@@ -0,0 +1,252 @@
+package todo.custom.cook.book.io;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.util.Interner;
+
+/*
+ * Compact binary snapshot of a cook book:
+ *
+ * magic "CCBK", version, generation, dictionary, name, author, recipes, CRC32
+ *
+ * Numbers are unsigned LEB128 varints. The dictionary holds the strings which
+ * typically repeat (groups, durations, portions, ingredient names and amounts)
+ * and is referenced by index + 1, recipe names and steps are stored inline as
+ * length + 1 followed by UTF-8, where 0 stands for null in both cases.
+ * Recipes are passed on only after the checksum matched.
+ */
+final class CookBookBinaryFormat {
+    private static final byte[] MAGIC = { 'C', 'C', 'B', 'K' };
+    private static final int VERSION = 1;
+
+    private CookBookBinaryFormat() {
+    }
+
+    static boolean isBinary(final Path filePath) throws IOException {
+	try (final InputStream inputStream = Files.newInputStream(filePath)) {
+	    return Arrays.equals(inputStream.readNBytes(MAGIC.length), MAGIC);
+	}
+    }
+
+    static long readGeneration(final Path filePath) throws IOException {
+	try (final InputStream inputStream = new BufferedInputStream(Files.newInputStream(filePath))) {
+	    readHeader(inputStream);
+	    return readNumber(inputStream);
+	}
+    }
+
+    static CookBookIO.Snapshot read(final InputStream inputStream, final CookBookJournal.Changes changes, final Interner interner, final Consumer<Recipe> recipeConsumer) throws IOException {
+	final CheckedInputStream checkedInputStream = new CheckedInputStream(inputStream, new CRC32());
+	readHeader(checkedInputStream);
+	final long generation = readNumber(checkedInputStream);
+	// the collections grow with the data actually read, so a corrupted count fails
+	// at the checksum instead of allocating huge arrays
+	final List<String> dictionary = new ArrayList<>();
+	final long dictionarySize = readNumber(checkedInputStream);
+	for (long i = 0; i < dictionarySize; i++) {
+	    dictionary.add(interner.intern(readString(checkedInputStream)));
+	}
+	final String name = readReference(checkedInputStream, dictionary);
+	final String author = readReference(checkedInputStream, dictionary);
+	final long numberOfRecipes = readNumber(checkedInputStream);
+	final List<Recipe> recipes = new ArrayList<>();
+	for (long i = 0; i < numberOfRecipes; i++) {
+	    recipes.add(readRecipe(checkedInputStream, dictionary, interner));
+	}
+	final long computedChecksum = checkedInputStream.getChecksum()
+		.getValue();
+	final byte[] storedChecksum = inputStream.readNBytes(4);
+	if (storedChecksum.length != 4 || toInt(storedChecksum) != (int) computedChecksum) {
+	    throw new IOException("The checksum of the cook book doesn't match, the file is corrupted");
+	}
+	// only recipes of an intact file are passed on, the consumer might already
+	// show them
+	final Consumer<Recipe> unchangedRecipeConsumer = changes.skipChanged(generation, recipeConsumer);
+	for (final Recipe recipe : recipes) {
+	    unchangedRecipeConsumer.accept(recipe);
+	}
+	return new CookBookIO.Snapshot(name, author, generation);
+    }
+
+    static void write(final CookBook cookBook, final long generation, final OutputStream outputStream) throws IOException {
+	final Map<String, Integer> dictionary = createDictionary(cookBook);
+	final CheckedOutputStream checkedOutputStream = new CheckedOutputStream(outputStream, new CRC32());
+	checkedOutputStream.write(MAGIC);
+	writeNumber(checkedOutputStream, VERSION);
+	writeNumber(checkedOutputStream, generation);
+	final String[] strings = new String[dictionary.size()];
+	for (final Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+	    strings[entry.getValue()] = entry.getKey();
+	}
+	writeNumber(checkedOutputStream, strings.length);
+	for (final String string : strings) {
+	    writeString(checkedOutputStream, string);
+	}
+	writeReference(checkedOutputStream, dictionary, cookBook.name());
+	writeReference(checkedOutputStream, dictionary, cookBook.author());
+	writeNumber(checkedOutputStream, cookBook.recipes()
+		.size());
+	for (final Recipe recipe : cookBook.recipes()) {
+	    writeRecipe(checkedOutputStream, dictionary, recipe);
+	}
+	final int checksum = (int) checkedOutputStream.getChecksum()
+		.getValue();
+	outputStream.write(new byte[] { (byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum });
+    }
+
+    private static Map<String, Integer> createDictionary(final CookBook cookBook) {
+	final Map<String, Integer> dictionary = new HashMap<>();
+	final Consumer<String> add = string -> {
+	    if (string != null) {
+		dictionary.putIfAbsent(string, dictionary.size());
+	    }
+	};
+	add.accept(cookBook.name());
+	add.accept(cookBook.author());
+	for (final Recipe recipe : cookBook.recipes()) {
+	    add.accept(recipe.duration());
+	    add.accept(recipe.group());
+	    add.accept(recipe.numberOfPortions());
+	    for (final Ingredient ingredient : recipe.ingredients()) {
+		add.accept(ingredient.name());
+		add.accept(ingredient.amount());
+	    }
+	}
+	return dictionary;
+    }
+
+    private static void writeRecipe(final OutputStream outputStream, final Map<String, Integer> dictionary, final Recipe recipe) throws IOException {
+	writeString(outputStream, recipe.name());
+	writeReference(outputStream, dictionary, recipe.duration());
+	writeReference(outputStream, dictionary, recipe.group());
+	writeReference(outputStream, dictionary, recipe.numberOfPortions());
+	writeNumber(outputStream, recipe.steps()
+		.size());
+	for (final String step : recipe.steps()) {
+	    writeString(outputStream, step);
+	}
+	writeNumber(outputStream, recipe.ingredients()
+		.size());
+	for (final Ingredient ingredient : recipe.ingredients()) {
+	    writeReference(outputStream, dictionary, ingredient.name());
+	    writeReference(outputStream, dictionary, ingredient.amount());
+	}
+    }
+
+    private static Recipe readRecipe(final InputStream inputStream, final List<String> dictionary, final Interner interner) throws IOException {
+	final String name = readString(inputStream);
+	final String duration = readReference(inputStream, dictionary);
+	final String group = readReference(inputStream, dictionary);
+	final String numberOfPortions = readReference(inputStream, dictionary);
+	final long numberOfSteps = readNumber(inputStream);
+	final List<String> steps = new ArrayList<>();
+	for (long i = 0; i < numberOfSteps; i++) {
+	    steps.add(readString(inputStream));
+	}
+	final long numberOfIngredients = readNumber(inputStream);
+	final Set<Ingredient> ingredients = new HashSet<>();
+	for (long i = 0; i < numberOfIngredients; i++) {
+	    ingredients.add(interner.intern(new Ingredient(readReference(inputStream, dictionary), readReference(inputStream, dictionary))));
+	}
+	return new Recipe(name, steps, duration, group, numberOfPortions, ingredients);
+    }
+
+    private static void readHeader(final InputStream inputStream) throws IOException {
+	if (!Arrays.equals(inputStream.readNBytes(MAGIC.length), MAGIC)) {
+	    throw new IOException("Not a binary cook book");
+	}
+	final long version = readNumber(inputStream);
+	if (version != VERSION) {
+	    throw new IOException("Unsupported version " + version + " of the binary cook book");
+	}
+    }
+
+    private static void writeReference(final OutputStream outputStream, final Map<String, Integer> dictionary, final String string) throws IOException {
+	writeNumber(outputStream, string == null ? 0 : dictionary.get(string) + 1);
+    }
+
+    private static String readReference(final InputStream inputStream, final List<String> dictionary) throws IOException {
+	final long reference = readNumber(inputStream);
+	if (reference == 0) {
+	    return null;
+	}
+	if (reference > dictionary.size()) {
+	    throw new IOException("Invalid dictionary reference " + reference);
+	}
+	return dictionary.get((int) reference - 1);
+    }
+
+    private static void writeString(final OutputStream outputStream, final String string) throws IOException {
+	if (string == null) {
+	    writeNumber(outputStream, 0);
+	    return;
+	}
+	final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+	writeNumber(outputStream, bytes.length + 1L);
+	outputStream.write(bytes);
+    }
+
+    private static String readString(final InputStream inputStream) throws IOException {
+	final long length = readNumber(inputStream);
+	if (length == 0) {
+	    return null;
+	}
+	if (length - 1 > Integer.MAX_VALUE) {
+	    throw new IOException("Invalid string length " + length);
+	}
+	final byte[] bytes = inputStream.readNBytes((int) (length - 1));
+	if (bytes.length != length - 1) {
+	    throw new EOFException("Unexpected end of the binary cook book");
+	}
+	return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNumber(final OutputStream outputStream, final long number) throws IOException {
+	long remaining = number;
+	while ((remaining & ~0x7FL) != 0) {
+	    outputStream.write((int) ((remaining & 0x7F) | 0x80));
+	    remaining >>>= 7;
+	}
+	outputStream.write((int) remaining);
+    }
+
+    private static long readNumber(final InputStream inputStream) throws IOException {
+	long number = 0;
+	for (int shift = 0; shift < 64; shift += 7) {
+	    final int nextByte = inputStream.read();
+	    if (nextByte < 0) {
+		throw new EOFException("Unexpected end of the binary cook book");
+	    }
+	    number |= (long) (nextByte & 0x7F) << shift;
+	    if ((nextByte & 0x80) == 0) {
+		return number;
+	    }
+	}
+	throw new IOException("Malformed number in the binary cook book");
+    }
+
+    private static int toInt(final byte[] bytes) {
+	return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+    }
+}
@@ -1,40 +1,447 @@
 package todo.custom.cook.book.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.util.Interner;
 
-public final class CookBookIO {
-    private final Path cookBookFilePath = Path.of("./cookBook.json");
+public final class CookBookIO implements CookBookStorage {
+    private static final long COMPACTION_THRESHOLD_IN_BYTES = 1024 * 1024;
+    // one lock per cook book, so that different cook books can be accessed at the
+    // same time
+    private static final Map<Path, Object> FILE_LOCKS = new ConcurrentHashMap<>();
+    // cook books with a scheduled compaction, so that a compaction of one cook book
+    // doesn't hold back the one of another
+    private static final Set<Path> SCHEDULED_COMPACTIONS = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService COMPACTION_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+	final Thread thread = new Thread(runnable, "cook-book-compaction");
+	thread.setDaemon(true);
+	return thread;
+    });
+
+    private final Path cookBookFilePath;
+    private final Path absoluteFilePath;
     private final Gson jsonParser = new Gson();
+    private final CookBookJournal journal;
+    private final Object fileLock;
+    // the files as this instance last read or wrote them, guarded by the file lock
+    private List<FileState> knownFileStates = List.of();
+    // another program modified the files right before this instance wrote them,
+    // which the file states no longer show after the write
+    private boolean externalChangePending;
+
+    public CookBookIO() {
+	this(Path.of("./cookBook.json"));
+    }
 
+    public CookBookIO(final Path cookBookFilePath) {
+	this.cookBookFilePath = cookBookFilePath;
+	this.absoluteFilePath = cookBookFilePath.toAbsolutePath()
+		.normalize();
+	this.fileLock = FILE_LOCKS.computeIfAbsent(absoluteFilePath, path -> new Object());
+	final String fileName = cookBookFilePath.getFileName()
+		.toString();
+	final String journalFileName = (fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - ".json".length()) : fileName) + ".journal";
+	this.journal = new CookBookJournal(cookBookFilePath.resolveSibling(journalFileName), jsonParser);
+    }
+
+    @Override
     public boolean cookBookExists() {
-	return Files.exists(cookBookFilePath);
+	return Files.exists(cookBookFilePath) || journal.exists();
     }
 
     public CookBook get() {
-	try {
-	    final String jsonContent = Files.readString(cookBookFilePath);
-	    return jsonParser.fromJson(jsonContent, CookBook.class);
-	} catch (final IOException e) {
-	    throw new IllegalStateException("Unable to fetch existing cook book from file system", e);
+	return get(recipe -> {
+	}, progressInPercent -> {
+	});
+    }
+
+    public CookBook get(final Consumer<Recipe> recipeConsumer, final IntConsumer progressConsumer) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.LOAD)) {
+		final CookBook cookBook = read(recipeConsumer, progressConsumer);
+		externalChangePending = false;
+		rememberFileStates();
+		return cookBook;
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to fetch existing cook book from file system", e);
+	    }
 	}
     }
 
+    @Override
     public void store(final CookBook cookBook) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE)) {
+		detectExternalChange();
+		writeSnapshot(cookBook, readGeneration() + 1, readStorageFormat());
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unabel to store cook book to file system", e);
+	    }
+	}
+    }
+
+    @Override
+    public void storeRecipe(final Recipe recipe) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		detectExternalChange();
+		journal.upsert(readGeneration(), recipe);
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store recipe to file system", e);
+	    }
+	}
+	compactIfNecessary();
+    }
+
+    @Override
+    public void storeRecipes(final Collection<Recipe> recipes) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		detectExternalChange();
+		journal.upsertAll(readGeneration(), recipes);
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store recipes to file system", e);
+	    }
+	}
+	compactIfNecessary();
+    }
+
+    @Override
+    public void deleteRecipe(final String recipeName) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		detectExternalChange();
+		journal.delete(readGeneration(), recipeName);
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to delete recipe from file system", e);
+	    }
+	}
+	compactIfNecessary();
+    }
+
+    @Override
+    public void storeMetadata(final String name, final String author) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		detectExternalChange();
+		journal.metadata(readGeneration(), name, author);
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store cook book metadata to file system", e);
+	    }
+	}
+	compactIfNecessary();
+    }
+
+    public StorageFormat getStorageFormat() {
+	synchronized (fileLock) {
+	    try {
+		return readStorageFormat();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to determine the storage format of the cook book", e);
+	    }
+	}
+    }
+
+    public void convertTo(final StorageFormat storageFormat) {
+	synchronized (fileLock) {
+	    try {
+		detectExternalChange();
+		// folds the journal into the converted snapshot as well
+		writeSnapshot(readAll(), readGeneration() + 1, storageFormat);
+		rememberFileStates();
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to convert cook book to " + storageFormat, e);
+	    }
+	}
+    }
+
+    public void compact() {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.COMPACTION)) {
+		if (journal.exists()) {
+		    detectExternalChange();
+		    writeSnapshot(readAll(), readGeneration() + 1, readStorageFormat());
+		    rememberFileStates();
+		}
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to compact cook book journal", e);
+	    }
+	}
+    }
+
+    // whether another program modified the files since this instance last read or
+    // wrote them
+    public boolean isChangedExternally() {
+	synchronized (fileLock) {
+	    try {
+		return externalChangePending || !readFileStates().equals(knownFileStates);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to check cook book for modifications", e);
+	    }
+	}
+    }
+
+    List<Path> getFilePaths() {
+	return List.of(cookBookFilePath, journal.getFilePath());
+    }
+
+    // called before every write, so that a modification by another program isn't
+    // taken for one of this instance afterwards, only get() resolves it
+    private void detectExternalChange() throws IOException {
+	if (!knownFileStates.isEmpty() && !readFileStates().equals(knownFileStates)) {
+	    externalChangePending = true;
+	}
+    }
+
+    private void rememberFileStates() throws IOException {
+	knownFileStates = readFileStates();
+    }
+
+    private List<FileState> readFileStates() throws IOException {
+	final List<FileState> fileStates = new ArrayList<>(2);
+	for (final Path filePath : getFilePaths()) {
+	    fileStates.add(Files.exists(filePath) ? new FileState(Files.getLastModifiedTime(filePath), Files.size(filePath)) : null);
+	}
+	return fileStates;
+    }
+
+    private void compactIfNecessary() {
 	try {
-	    final String jsonContent = jsonParser.toJson(cookBook);
-	    if (cookBookExists()) {
-		Files.delete(cookBookFilePath);
+	    if (journal.size() < COMPACTION_THRESHOLD_IN_BYTES || !SCHEDULED_COMPACTIONS.add(absoluteFilePath)) {
+		return;
 	    }
-	    Files.writeString(cookBookFilePath, jsonContent, StandardOpenOption.CREATE_NEW);
 	} catch (final IOException e) {
-	    throw new IllegalStateException("Unabel to store cook book to file system", e);
+	    return;
+	}
+	COMPACTION_EXECUTOR.execute(() -> {
+	    try {
+		compact();
+	    } finally {
+		SCHEDULED_COMPACTIONS.remove(absoluteFilePath);
+	    }
+	});
+    }
+
+    // reads without resolving a pending external change, which the user of this
+    // instance hasn't seen yet
+    private CookBook readAll() throws IOException {
+	return read(recipe -> {
+	}, progressInPercent -> {
+	});
+    }
+
+    private CookBook read(final Consumer<Recipe> recipeConsumer, final IntConsumer progressConsumer) throws IOException {
+	// the values of this load only, so that they are collected together with it
+	final Interner interner = new Interner();
+	final CookBookJournal.Changes changes = journal.read(interner);
+	final Set<Recipe> recipes = new HashSet<>();
+	final Snapshot snapshot;
+	if (Files.exists(cookBookFilePath)) {
+	    final StorageFormat storageFormat = readStorageFormat();
+	    try (final FileChannel channel = FileChannel.open(cookBookFilePath, StandardOpenOption.READ)) {
+		final long size = Math.max(1, channel.size());
+		final Consumer<Recipe> snapshotRecipeConsumer = recipe -> {
+		    recipes.add(recipe);
+		    recipeConsumer.accept(recipe);
+		    progressConsumer.accept(getProgressInPercent(channel, size));
+		};
+		if (storageFormat == StorageFormat.BINARY) {
+		    snapshot = CookBookBinaryFormat.read(new BufferedInputStream(Channels.newInputStream(channel)), changes, interner, snapshotRecipeConsumer);
+		} else {
+		    final JsonReader jsonReader = jsonParser.newJsonReader(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8)));
+		    snapshot = readSnapshot(jsonReader, changes, interner, snapshotRecipeConsumer);
+		}
+	    }
+	} else {
+	    snapshot = new Snapshot(null, null, 0);
+	}
+	if (changes.generation() != snapshot.generation()) {
+	    // the journal has already been folded into the snapshot
+	    progressConsumer.accept(100);
+	    return new CookBook(snapshot.name(), snapshot.author(), recipes);
+	}
+	for (final Map.Entry<String, Optional<Recipe>> change : changes.recipesByName()
+		.entrySet()) {
+	    if (change.getValue()
+		    .isPresent()) {
+		final Recipe recipe = change.getValue()
+			.get();
+		recipes.add(recipe);
+		recipeConsumer.accept(recipe);
+	    }
 	}
+	progressConsumer.accept(100);
+	final String name = changes.name()
+		.orElse(snapshot.name());
+	final String author = changes.author()
+		.orElse(snapshot.author());
+	return new CookBook(name, author, recipes);
+    }
+
+    private Snapshot readSnapshot(final JsonReader jsonReader, final CookBookJournal.Changes changes, final Interner interner, final Consumer<Recipe> recipeConsumer) throws IOException {
+	String name = null;
+	String author = null;
+	long generation = 0;
+	jsonReader.beginObject();
+	while (jsonReader.hasNext()) {
+	    switch (jsonReader.nextName()) {
+	    case "name" -> name = nextNullableString(jsonReader);
+	    case "author" -> author = nextNullableString(jsonReader);
+	    case "generation" -> generation = jsonReader.nextLong();
+	    case "recipes" -> readRecipes(jsonReader, interner, changes.skipChanged(generation, recipeConsumer));
+	    default -> jsonReader.skipValue();
+	    }
+	}
+	jsonReader.endObject();
+	return new Snapshot(name, author, generation);
+    }
+
+    private void readRecipes(final JsonReader jsonReader, final Interner interner, final Consumer<Recipe> recipeConsumer) throws IOException {
+	if (jsonReader.peek() == JsonToken.NULL) {
+	    jsonReader.nextNull();
+	    return;
+	}
+	jsonReader.beginArray();
+	while (jsonReader.hasNext()) {
+	    // only a single recipe is materialized at a time
+	    final Recipe recipe = jsonParser.fromJson(jsonReader, Recipe.class);
+	    recipeConsumer.accept(interner.intern(recipe));
+	}
+	jsonReader.endArray();
+    }
+
+    private int getProgressInPercent(final FileChannel channel, final long size) {
+	try {
+	    // the channel position is ahead by at most one buffer of the reader
+	    return (int) Math.min(100, channel.position() * 100 / size);
+	} catch (final IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    private long readGeneration() throws IOException {
+	if (!Files.exists(cookBookFilePath)) {
+	    return 0;
+	}
+	if (readStorageFormat() == StorageFormat.BINARY) {
+	    return CookBookBinaryFormat.readGeneration(cookBookFilePath);
+	}
+	try (final JsonReader jsonReader = jsonParser.newJsonReader(Files.newBufferedReader(cookBookFilePath, StandardCharsets.UTF_8))) {
+	    jsonReader.beginObject();
+	    // the generation is written in front of the recipes, so there is no need to
+	    // scan the whole file
+	    while (jsonReader.hasNext()) {
+		final String fieldName = jsonReader.nextName();
+		if (fieldName.equals("generation")) {
+		    return jsonReader.nextLong();
+		} else if (fieldName.equals("recipes")) {
+		    return 0;
+		}
+		jsonReader.skipValue();
+	    }
+	    return 0;
+	}
+    }
+
+    // the format is detected by the magic header of the binary format, so a cook
+    // book keeps its format when it is stored again
+    private StorageFormat readStorageFormat() throws IOException {
+	if (Files.exists(cookBookFilePath) && CookBookBinaryFormat.isBinary(cookBookFilePath)) {
+	    return StorageFormat.BINARY;
+	}
+	return StorageFormat.JSON;
+    }
+
+    private String nextNullableString(final JsonReader jsonReader) throws IOException {
+	if (jsonReader.peek() == JsonToken.NULL) {
+	    jsonReader.nextNull();
+	    return null;
+	}
+	return jsonReader.nextString();
+    }
+
+    private void writeSnapshot(final CookBook cookBook, final long generation, final StorageFormat storageFormat) throws IOException {
+	final Path temporaryFilePath = AtomicFiles.createSibling(cookBookFilePath);
+	try {
+	    try (final FileChannel channel = FileChannel.open(temporaryFilePath, StandardOpenOption.WRITE)) {
+		if (storageFormat == StorageFormat.BINARY) {
+		    final OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+		    CookBookBinaryFormat.write(cookBook, generation, outputStream);
+		    outputStream.flush();
+		} else {
+		    final JsonWriter jsonWriter = jsonParser.newJsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)));
+		    writeCookBook(cookBook, generation, jsonWriter);
+		    jsonWriter.flush();
+		}
+		channel.force(true);
+	    }
+	    AtomicFiles.replace(temporaryFilePath, cookBookFilePath);
+	} finally {
+	    Files.deleteIfExists(temporaryFilePath);
+	}
+	// a crash before this point leaves an outdated journal behind, which is ignored
+	// due to its older generation
+	journal.reset(generation);
+    }
+
+    private void writeCookBook(final CookBook cookBook, final long generation, final JsonWriter jsonWriter) throws IOException {
+	jsonWriter.beginObject();
+	jsonWriter.name("name")
+		.value(cookBook.name());
+	jsonWriter.name("author")
+		.value(cookBook.author());
+	jsonWriter.name("generation")
+		.value(generation);
+	jsonWriter.name("recipes")
+		.beginArray();
+	for (final Recipe recipe : cookBook.recipes()) {
+	    jsonParser.toJson(recipe, Recipe.class, jsonWriter);
+	}
+	jsonWriter.endArray();
+	jsonWriter.endObject();
+    }
+
+    private record FileState(FileTime lastModifiedTime, long size) {
+    }
+
+    record Snapshot(String name, String author, long generation) {
     }
 }
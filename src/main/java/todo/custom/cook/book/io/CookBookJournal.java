@@ -0,0 +1,238 @@
+package todo.custom.cook.book.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.util.Interner;
+
+/*
+ * Append-only log of recipe level changes, one JSON object per line. The first
+ * line records the generation of the snapshot the changes apply to, so that a
+ * journal which was already folded into a newer snapshot is never replayed.
+ */
+final class CookBookJournal {
+    private static final String GENERATION = "generation";
+    private static final String UPSERT = "upsert";
+    private static final String DELETE = "delete";
+    private static final String METADATA = "metadata";
+
+    private final Path journalFilePath;
+    private final Gson jsonParser;
+
+    CookBookJournal(final Path journalFilePath, final Gson jsonParser) {
+	this.journalFilePath = journalFilePath;
+	this.jsonParser = jsonParser;
+    }
+
+    Path getFilePath() {
+	return journalFilePath;
+    }
+
+    boolean exists() {
+	return Files.exists(journalFilePath);
+    }
+
+    long size() throws IOException {
+	return exists() ? Files.size(journalFilePath) : 0;
+    }
+
+    void upsert(final long generation, final Recipe recipe) throws IOException {
+	append(generation, new Entry(UPSERT, 0, recipe.name(), null, recipe));
+    }
+
+    void upsertAll(final long generation, final Collection<Recipe> recipes) throws IOException {
+	final List<Entry> entries = new ArrayList<>(recipes.size());
+	for (final Recipe recipe : recipes) {
+	    entries.add(new Entry(UPSERT, 0, recipe.name(), null, recipe));
+	}
+	append(generation, entries);
+    }
+
+    void delete(final long generation, final String recipeName) throws IOException {
+	append(generation, new Entry(DELETE, 0, recipeName, null, null));
+    }
+
+    void metadata(final long generation, final String name, final String author) throws IOException {
+	append(generation, new Entry(METADATA, 0, name, author, null));
+    }
+
+    Changes read(final Interner interner) throws IOException {
+	final Changes changes = new Changes(interner);
+	if (!exists()) {
+	    return changes;
+	}
+	try (final BufferedReader reader = Files.newBufferedReader(journalFilePath, StandardCharsets.UTF_8)) {
+	    String line;
+	    while ((line = reader.readLine()) != null) {
+		final Entry entry;
+		try {
+		    entry = jsonParser.fromJson(line, Entry.class);
+		} catch (final JsonParseException e) {
+		    // a torn write of a crash, the entries appended after it are intact
+		    continue;
+		}
+		if (isValid(entry)) {
+		    changes.apply(entry);
+		}
+	    }
+	}
+	return changes;
+    }
+
+    void reset(final long generation) throws IOException {
+	final Path temporaryFilePath = AtomicFiles.createSibling(journalFilePath);
+	try (final FileChannel channel = FileChannel.open(temporaryFilePath, StandardOpenOption.WRITE)) {
+	    write(channel, new Entry(GENERATION, generation, null, null, null));
+	    channel.force(true);
+	}
+	AtomicFiles.replace(temporaryFilePath, journalFilePath);
+    }
+
+    private void append(final long generation, final Entry entry) throws IOException {
+	append(generation, List.of(entry));
+    }
+
+    // the entries are forced to disk together
+    private void append(final long generation, final List<Entry> entries) throws IOException {
+	// a crash between writing a snapshot and resetting the journal leaves the
+	// journal of the previous snapshot behind, which read() ignores
+	if (!exists() || readGeneration() != generation) {
+	    reset(generation);
+	}
+	try (final FileChannel channel = FileChannel.open(journalFilePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+	    channel.position(channel.size());
+	    terminateTornLine(channel);
+	    for (final Entry entry : entries) {
+		write(channel, entry);
+	    }
+	    channel.force(false);
+	}
+    }
+
+    // the generation of the first line, which reset() writes atomically
+    private long readGeneration() throws IOException {
+	try (final BufferedReader reader = Files.newBufferedReader(journalFilePath, StandardCharsets.UTF_8)) {
+	    final Entry entry = jsonParser.fromJson(reader.readLine(), Entry.class);
+	    return entry != null && GENERATION.equals(entry.op()) ? entry.generation() : -1;
+	} catch (final JsonParseException e) {
+	    return -1;
+	}
+    }
+
+    // otherwise the next entry would continue the torn line of a crash and be
+    // skipped by read() as well
+    private void terminateTornLine(final FileChannel channel) throws IOException {
+	final long size = channel.size();
+	if (size == 0) {
+	    return;
+	}
+	final ByteBuffer lastByte = ByteBuffer.allocate(1);
+	channel.read(lastByte, size - 1);
+	if (lastByte.get(0) != '\n') {
+	    final ByteBuffer lineBreak = ByteBuffer.wrap(new byte[] { '\n' });
+	    while (lineBreak.hasRemaining()) {
+		channel.write(lineBreak);
+	    }
+	}
+    }
+
+    private static boolean isValid(final Entry entry) {
+	if (entry == null || entry.op() == null) {
+	    return false;
+	}
+	// an upsert without a recipe can't be applied
+	return !entry.op()
+		.equals(UPSERT) || (entry.name() != null && entry.recipe() != null);
+    }
+
+    private void write(final FileChannel channel, final Entry entry) throws IOException {
+	final ByteBuffer line = StandardCharsets.UTF_8.encode(jsonParser.toJson(entry) + "\n");
+	while (line.hasRemaining()) {
+	    channel.write(line);
+	}
+    }
+
+    private record Entry(String op, long generation, String name, String author, Recipe recipe) {
+    }
+
+    static final class Changes {
+	private long generation;
+	private Optional<String> name = Optional.empty();
+	private Optional<String> author = Optional.empty();
+	private final Map<String, Optional<Recipe>> recipesByName = new LinkedHashMap<>();
+	private final Interner interner;
+
+	private Changes(final Interner interner) {
+	    this.interner = interner;
+	}
+
+	private void apply(final Entry entry) {
+	    switch (entry.op()) {
+	    case GENERATION -> generation = entry.generation();
+	    case UPSERT -> {
+		recipesByName.remove(entry.name());
+		recipesByName.put(entry.name(), Optional.of(interner.intern(entry.recipe())));
+	    }
+	    case DELETE -> {
+		recipesByName.remove(entry.name());
+		recipesByName.put(entry.name(), Optional.empty());
+	    }
+	    case METADATA -> {
+		name = Optional.ofNullable(entry.name());
+		author = Optional.ofNullable(entry.author());
+	    }
+	    default -> throw new IllegalStateException("Unknown journal entry " + entry.op());
+	    }
+	}
+
+	long generation() {
+	    return generation;
+	}
+
+	Optional<String> name() {
+	    return name;
+	}
+
+	Optional<String> author() {
+	    return author;
+	}
+
+	boolean touches(final String recipeName) {
+	    return recipesByName.containsKey(recipeName);
+	}
+
+	// recipes of the snapshot which are replaced or deleted by the journal are
+	// skipped, as long as the journal belongs to that snapshot
+	Consumer<Recipe> skipChanged(final long snapshotGeneration, final Consumer<Recipe> recipeConsumer) {
+	    if (generation != snapshotGeneration) {
+		return recipeConsumer;
+	    }
+	    return recipe -> {
+		if (!touches(recipe.name())) {
+		    recipeConsumer.accept(recipe);
+		}
+	    };
+	}
+
+	Map<String, Optional<Recipe>> recipesByName() {
+	    return recipesByName;
+	}
+    }
+}
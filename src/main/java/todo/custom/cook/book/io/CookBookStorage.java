@@ -0,0 +1,25 @@
+package todo.custom.cook.book.io;
+
+import java.util.Collection;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Write side shared by the storage backends, so that saving doesn't depend on
+ * how a cook book is laid out on the file system.
+ */
+public interface CookBookStorage {
+    boolean cookBookExists();
+
+    void store(CookBook cookBook);
+
+    void storeRecipe(Recipe recipe);
+
+    // stores many recipes at once, e.g., of an import, with a single write
+    void storeRecipes(Collection<Recipe> recipes);
+
+    void deleteRecipe(String recipeName);
+
+    void storeMetadata(String name, String author);
+}
@@ -0,0 +1,127 @@
+package todo.custom.cook.book.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Reloads a cook book file once another program, e.g., a sync client or a
+ * script, modified it and reports the recipes which differ from the previously
+ * loaded version. Modifications by the watched CookBookIO itself are ignored.
+ * The changes are reported on the thread of the watcher.
+ */
+public final class CookBookWatcher implements Closeable {
+    // sync clients and scripts often write a file in several steps
+    private static final long SETTLE_TIME_IN_MILLISECONDS = 500;
+
+    private final CookBookIO cookBookIO;
+    private final Consumer<Changes> changesConsumer;
+    private final Set<Path> fileNames = new HashSet<>();
+    private final WatchService watchService;
+    private Map<String, Recipe> recipesByName;
+
+    public CookBookWatcher(final CookBookIO cookBookIO, final CookBook cookBook, final Consumer<Changes> changesConsumer) throws IOException {
+	this.cookBookIO = cookBookIO;
+	this.changesConsumer = changesConsumer;
+	this.recipesByName = getRecipesByName(cookBook);
+	final List<Path> filePaths = cookBookIO.getFilePaths();
+	for (final Path filePath : filePaths) {
+	    fileNames.add(filePath.getFileName());
+	}
+	final Path directory = filePaths.get(0)
+		.toAbsolutePath()
+		.getParent();
+	this.watchService = directory.getFileSystem()
+		.newWatchService();
+	directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	final Thread thread = new Thread(this::watch, "cook-book-watcher");
+	thread.setDaemon(true);
+	thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+	watchService.close();
+    }
+
+    private void watch() {
+	try {
+	    while (true) {
+		boolean cookBookModified = isCookBookModified(watchService.take());
+		WatchKey watchKey;
+		while ((watchKey = watchService.poll(SETTLE_TIME_IN_MILLISECONDS, TimeUnit.MILLISECONDS)) != null) {
+		    cookBookModified |= isCookBookModified(watchKey);
+		}
+		if (cookBookModified) {
+		    reload();
+		}
+	    }
+	} catch (final InterruptedException | ClosedWatchServiceException e) {
+	    // the watcher is closed
+	}
+    }
+
+    private boolean isCookBookModified(final WatchKey watchKey) {
+	boolean cookBookModified = false;
+	for (final WatchEvent<?> event : watchKey.pollEvents()) {
+	    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileNames.contains(event.context())) {
+		cookBookModified = true;
+	    }
+	}
+	watchKey.reset();
+	return cookBookModified;
+    }
+
+    private void reload() {
+	// a removed cook book is most likely about to be replaced
+	if (!cookBookIO.cookBookExists() || !cookBookIO.isChangedExternally()) {
+	    return;
+	}
+	final CookBook cookBook;
+	try {
+	    cookBook = cookBookIO.get();
+	} catch (final IllegalStateException e) {
+	    // e.g., a partially written file, the next modification is tried again
+	    return;
+	}
+	final Map<String, Recipe> newRecipesByName = getRecipesByName(cookBook);
+	final List<Recipe> changedRecipes = new ArrayList<>();
+	for (final Recipe recipe : newRecipesByName.values()) {
+	    if (!recipe.equals(recipesByName.get(recipe.name()))) {
+		changedRecipes.add(recipe);
+	    }
+	}
+	final Set<String> removedRecipeNames = new HashSet<>(recipesByName.keySet());
+	removedRecipeNames.removeAll(newRecipesByName.keySet());
+	recipesByName = newRecipesByName;
+	changesConsumer.accept(new Changes(cookBook.name(), cookBook.author(), changedRecipes, removedRecipeNames));
+    }
+
+    private static Map<String, Recipe> getRecipesByName(final CookBook cookBook) {
+	final Map<String, Recipe> recipesByName = new HashMap<>();
+	for (final Recipe recipe : cookBook.recipes()) {
+	    recipesByName.put(recipe.name(), recipe);
+	}
+	return recipesByName;
+    }
+
+    // changed recipes include added ones, the metadata is always reported
+    public record Changes(String name, String author, List<Recipe> changedRecipes, Set<String> removedRecipeNames) {
+    }
+}
@@ -0,0 +1,257 @@
+package todo.custom.cook.book.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.util.Functions;
+import todo.custom.cook.book.util.Interner;
+
+/*
+ * Reads all recipes of a directory, i.e., files of a single recipe, files of an
+ * array of recipes and cook books of any storage format. The files are parsed
+ * and normalized concurrently, but merged with the existing recipes in the
+ * order of the files, so that the result doesn't depend on the scheduling.
+ */
+public final class RecipeImport {
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    private final Path directory;
+    private final int numberOfThreads;
+    private final Gson jsonParser = new Gson();
+
+    public RecipeImport(final Path directory) {
+	this(directory, Runtime.getRuntime()
+		.availableProcessors());
+    }
+
+    public RecipeImport(final Path directory, final int numberOfThreads) {
+	this.directory = directory;
+	this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    // the existing recipes aren't part of the result, neither are imported recipes
+    // equal to one of them
+    public Result read(final Collection<Recipe> existingRecipes) {
+	try (final Metrics.Timing timing = Metrics.time(Metrics.IMPORT)) {
+	    final List<Path> sources = findSources();
+	    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, Math.max(1, sources.size())));
+	    // shared by the parsing threads of this import only
+	    final Interner interner = new Interner();
+	    try {
+		final List<Future<ParsedSource>> parsedSources = new ArrayList<>(sources.size());
+		for (final Path source : sources) {
+		    parsedSources.add(executor.submit(() -> read(source, interner)));
+		}
+		return merge(existingRecipes, sources, parsedSources);
+	    } finally {
+		executor.shutdownNow();
+	    }
+	} catch (final IOException e) {
+	    throw new IllegalStateException("Unable to list recipe files of " + directory, e);
+	} catch (final InterruptedException e) {
+	    Thread.currentThread()
+		    .interrupt();
+	    throw new IllegalStateException("Unable to import recipes of " + directory, e);
+	}
+    }
+
+    private List<Path> findSources() throws IOException {
+	final List<Path> sources = new ArrayList<>();
+	Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+	    @Override
+	    public FileVisitResult preVisitDirectory(final Path subdirectory, final BasicFileAttributes attributes) {
+		if (Files.exists(subdirectory.resolve(MANIFEST_FILE_NAME))) {
+		    // a sharded cook book, its shards are read via the manifest
+		    sources.add(subdirectory);
+		    return FileVisitResult.SKIP_SUBTREE;
+		}
+		return FileVisitResult.CONTINUE;
+	    }
+
+	    @Override
+	    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+		final String fileName = file.getFileName()
+			.toString();
+		if (fileName.endsWith(".json") || fileName.endsWith(".ccbk")) {
+		    sources.add(file);
+		}
+		return FileVisitResult.CONTINUE;
+	    }
+	});
+	sources.sort(null);
+	return sources;
+    }
+
+    private ParsedSource read(final Path source, final Interner interner) throws IOException {
+	final ParsedSource parsedSource = new ParsedSource(interner);
+	if (Files.isDirectory(source)) {
+	    parsedSource.addAll(new ShardedCookBookIO(source).get()
+		    .recipes());
+	} else if (CookBookBinaryFormat.isBinary(source)) {
+	    parsedSource.addAll(new CookBookIO(source).get()
+		    .recipes());
+	} else {
+	    readJson(source, parsedSource);
+	}
+	return parsedSource;
+    }
+
+    private void readJson(final Path source, final ParsedSource parsedSource) throws IOException {
+	try (final JsonReader jsonReader = jsonParser.newJsonReader(Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+	    if (jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+		jsonReader.beginArray();
+		while (jsonReader.hasNext()) {
+		    // only a single recipe is materialized at a time
+		    parsedSource.add(jsonParser.fromJson(jsonReader, Recipe.class));
+		}
+		jsonReader.endArray();
+		return;
+	    }
+	    final JsonObject recipeObject = new JsonObject();
+	    jsonReader.beginObject();
+	    while (jsonReader.hasNext()) {
+		final String fieldName = jsonReader.nextName();
+		if (fieldName.equals("recipes")) {
+		    // a cook book, which is read with the changes of its journal
+		    parsedSource.addAll(new CookBookIO(source).get()
+			    .recipes());
+		    return;
+		}
+		recipeObject.add(fieldName, jsonParser.fromJson(jsonReader, JsonElement.class));
+	    }
+	    jsonReader.endObject();
+	    parsedSource.add(jsonParser.fromJson(recipeObject, Recipe.class));
+	}
+    }
+
+    private Result merge(final Collection<Recipe> existingRecipes, final List<Path> sources, final List<Future<ParsedSource>> parsedSources) throws InterruptedException {
+	final Set<Recipe> knownRecipes = new HashSet<>(existingRecipes);
+	final Set<String> usedNames = new HashSet<>();
+	for (final Recipe existingRecipe : existingRecipes) {
+	    usedNames.add(existingRecipe.name());
+	}
+	final List<Recipe> importedRecipes = new ArrayList<>();
+	final List<Path> failedSources = new ArrayList<>();
+	int numberOfDuplicates = 0;
+	int numberOfInvalidRecipes = 0;
+	for (int i = 0; i < sources.size(); i++) {
+	    final ParsedSource parsedSource;
+	    try {
+		parsedSource = parsedSources.get(i)
+			.get();
+	    } catch (final ExecutionException e) {
+		failedSources.add(sources.get(i));
+		continue;
+	    }
+	    numberOfInvalidRecipes += parsedSource.numberOfInvalidRecipes;
+	    for (final Recipe recipe : parsedSource.recipes) {
+		if (!knownRecipes.add(recipe)) {
+		    numberOfDuplicates++;
+		    continue;
+		}
+		// recipes are stored by name, so a different recipe of the same name would
+		// replace the existing one
+		String name = recipe.name();
+		for (int number = 2; !usedNames.add(name); number++) {
+		    name = recipe.name() + " (" + number + ")";
+		}
+		importedRecipes.add(name.equals(recipe.name()) ? recipe : new Recipe(name, recipe.steps(), recipe.duration(), recipe.group(), recipe.numberOfPortions(), recipe.ingredients()));
+	    }
+	}
+	return new Result(importedRecipes, numberOfDuplicates, numberOfInvalidRecipes, failedSources);
+    }
+
+    // the same rules as for a recipe of the editor, after surrounding white space
+    // and empty steps and ingredients are removed
+    private static Recipe normalize(final Recipe recipe, final Interner interner) {
+	if (recipe == null) {
+	    return null;
+	}
+	final List<String> steps = new ArrayList<>();
+	if (recipe.steps() != null) {
+	    for (final String step : recipe.steps()) {
+		if (step != null && !step.isBlank()) {
+		    steps.add(step.strip());
+		}
+	    }
+	}
+	final Set<Ingredient> ingredients = new HashSet<>();
+	if (recipe.ingredients() != null) {
+	    for (final Ingredient ingredient : recipe.ingredients()) {
+		if (ingredient != null && ingredient.name() != null && !ingredient.name()
+			.isBlank()) {
+		    ingredients.add(new Ingredient(ingredient.name()
+			    .strip(), strip(ingredient.amount())));
+		}
+	    }
+	}
+	final Recipe normalizedRecipe = new Recipe(strip(recipe.name()), steps, strip(recipe.duration()), strip(recipe.group()), strip(recipe.numberOfPortions()), ingredients);
+	for (final String recipeAttribute : List.of(normalizedRecipe.name(), normalizedRecipe.group(), normalizedRecipe.duration(), normalizedRecipe.numberOfPortions())) {
+	    if (Functions.emptyString(recipeAttribute)) {
+		return null;
+	    }
+	}
+	if (steps.isEmpty() || ingredients.isEmpty()) {
+	    return null;
+	}
+	return interner.intern(normalizedRecipe);
+    }
+
+    private static String strip(final String text) {
+	return text == null ? "" : text.strip();
+    }
+
+    // the normalized recipes of a single file
+    private static final class ParsedSource {
+	private final List<Recipe> recipes = new ArrayList<>();
+	private int numberOfInvalidRecipes;
+	private final Interner interner;
+
+	private ParsedSource(final Interner interner) {
+	    this.interner = interner;
+	}
+
+	private void add(final Recipe recipe) {
+	    final Recipe normalizedRecipe = normalize(recipe, interner);
+	    if (normalizedRecipe == null) {
+		numberOfInvalidRecipes++;
+	    } else {
+		recipes.add(normalizedRecipe);
+	    }
+	}
+
+	private void addAll(final Collection<Recipe> recipes) {
+	    for (final Recipe recipe : recipes) {
+		add(recipe);
+	    }
+	}
+    }
+
+    // recipes of the same name as an existing or another imported recipe get a
+    // number appended, files which couldn't be read are skipped
+    public record Result(List<Recipe> recipes, int numberOfDuplicates, int numberOfInvalidRecipes, List<Path> failedFiles) {
+    }
+}
@@ -0,0 +1,303 @@
+package todo.custom.cook.book.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.util.ContentHash;
+import todo.custom.cook.book.util.Interner;
+
+/*
+ * Stores every recipe in its own shard file, named by the content hash of the
+ * recipe, next to a small manifest with the metadata of the cook book and an
+ * index of all recipes. Unchanged recipes keep their shard, so storing only
+ * writes the shards of changed recipes and the manifest. Storing single recipes
+ * only deletes the shards they replace, store() deletes all unused shards.
+ */
+public final class ShardedCookBookIO implements CookBookStorage {
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+    private static final String SHARD_DIRECTORY_NAME = "recipes";
+    private static final String SHARD_FILE_EXTENSION = ".json";
+
+    // one lock per cook book, so that different cook books can be accessed at the
+    // same time
+    private static final Map<Path, Object> FILE_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path manifestFilePath;
+    private final Path shardDirectory;
+    private final Gson jsonParser = new Gson();
+    private final Object fileLock;
+    // shared by the recipes loaded on demand, the values go away with this instance
+    private final Interner interner = new Interner();
+
+    public ShardedCookBookIO() {
+	this(Path.of("./cookBook"));
+    }
+
+    public ShardedCookBookIO(final Path directory) {
+	this.manifestFilePath = directory.resolve(MANIFEST_FILE_NAME);
+	this.fileLock = FILE_LOCKS.computeIfAbsent(directory.toAbsolutePath()
+		.normalize(), path -> new Object());
+	this.shardDirectory = directory.resolve(SHARD_DIRECTORY_NAME);
+    }
+
+    @Override
+    public boolean cookBookExists() {
+	return Files.exists(manifestFilePath);
+    }
+
+    public Manifest getManifest() {
+	synchronized (fileLock) {
+	    if (!cookBookExists()) {
+		return new Manifest(null, null, List.of());
+	    }
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.LOAD);
+		    final Reader reader = Files.newBufferedReader(manifestFilePath, StandardCharsets.UTF_8)) {
+		final Manifest manifest = jsonParser.fromJson(reader, Manifest.class);
+		if (manifest.recipes() == null) {
+		    return new Manifest(manifest.name(), manifest.author(), List.of());
+		}
+		// the groups of the entries end up in the previews of the recipes
+		final List<RecipeEntry> recipeEntries = new ArrayList<>(manifest.recipes()
+			.size());
+		for (final RecipeEntry recipeEntry : manifest.recipes()) {
+		    recipeEntries.add(new RecipeEntry(recipeEntry.name(), interner.intern(recipeEntry.group()), recipeEntry.hash()));
+		}
+		return new Manifest(manifest.name(), manifest.author(), recipeEntries);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to fetch cook book manifest from file system", e);
+	    }
+	}
+    }
+
+    // the entry might be outdated, as the recipe was stored again in the meantime,
+    // then the current one of the manifest is read instead
+    public Recipe getRecipe(final RecipeEntry recipeEntry) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.LOAD_RECIPE)) {
+		if (Files.exists(getShardFilePath(recipeEntry.hash()))) {
+		    return readShard(recipeEntry.hash());
+		}
+		for (final RecipeEntry currentRecipeEntry : getManifest().recipes()) {
+		    if (currentRecipeEntry.name()
+			    .equals(recipeEntry.name())) {
+			return readShard(currentRecipeEntry.hash());
+		    }
+		}
+		throw new IllegalStateException("Recipe " + recipeEntry.name() + " was deleted");
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to fetch recipe " + recipeEntry.name() + " from file system", e);
+	    }
+	}
+    }
+
+    private Recipe readShard(final String hash) throws IOException {
+	try (final Reader reader = Files.newBufferedReader(getShardFilePath(hash), StandardCharsets.UTF_8)) {
+	    return interner.intern(jsonParser.fromJson(reader, Recipe.class));
+	}
+    }
+
+    public CookBook get() {
+	synchronized (fileLock) {
+	    final Manifest manifest = getManifest();
+	    final Set<Recipe> recipes = new HashSet<>();
+	    for (final RecipeEntry recipeEntry : manifest.recipes()) {
+		recipes.add(getRecipe(recipeEntry));
+	    }
+	    return new CookBook(manifest.name(), manifest.author(), recipes);
+	}
+    }
+
+    @Override
+    public void store(final CookBook cookBook) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE)) {
+		final List<RecipeEntry> recipeEntries = new ArrayList<>();
+		for (final Recipe recipe : cookBook.recipes()) {
+		    recipeEntries.add(writeShard(recipe));
+		}
+		writeManifest(new Manifest(cookBook.name(), cookBook.author(), recipeEntries));
+		deleteUnusedShards(recipeEntries);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store cook book to file system", e);
+	    }
+	}
+    }
+
+    @Override
+    public void storeRecipe(final Recipe recipe) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		final Manifest manifest = getManifest();
+		final List<RecipeEntry> recipeEntries = new ArrayList<>(manifest.recipes());
+		final List<RecipeEntry> replacedRecipeEntries = removeRecipeEntries(recipeEntries, Set.of(recipe.name()));
+		recipeEntries.add(writeShard(recipe));
+		writeManifest(new Manifest(manifest.name(), manifest.author(), recipeEntries));
+		deleteShards(replacedRecipeEntries, recipeEntries);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store recipe to file system", e);
+	    }
+	}
+    }
+
+    // the manifest is only written once for all recipes
+    @Override
+    public void storeRecipes(final Collection<Recipe> recipes) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		final Manifest manifest = getManifest();
+		final Set<String> recipeNames = new HashSet<>();
+		for (final Recipe recipe : recipes) {
+		    recipeNames.add(recipe.name());
+		}
+		final List<RecipeEntry> recipeEntries = new ArrayList<>(manifest.recipes());
+		final List<RecipeEntry> replacedRecipeEntries = removeRecipeEntries(recipeEntries, recipeNames);
+		for (final Recipe recipe : recipes) {
+		    recipeEntries.add(writeShard(recipe));
+		}
+		writeManifest(new Manifest(manifest.name(), manifest.author(), recipeEntries));
+		deleteShards(replacedRecipeEntries, recipeEntries);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store recipes to file system", e);
+	    }
+	}
+    }
+
+    @Override
+    public void deleteRecipe(final String recipeName) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		final Manifest manifest = getManifest();
+		final List<RecipeEntry> recipeEntries = new ArrayList<>(manifest.recipes());
+		final List<RecipeEntry> removedRecipeEntries = removeRecipeEntries(recipeEntries, Set.of(recipeName));
+		writeManifest(new Manifest(manifest.name(), manifest.author(), recipeEntries));
+		deleteShards(removedRecipeEntries, recipeEntries);
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to delete recipe from file system", e);
+	    }
+	}
+    }
+
+    @Override
+    public void storeMetadata(final String name, final String author) {
+	synchronized (fileLock) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.SAVE_RECIPE)) {
+		writeManifest(new Manifest(name, author, getManifest().recipes()));
+	    } catch (final IOException e) {
+		throw new IllegalStateException("Unable to store cook book metadata to file system", e);
+	    }
+	}
+    }
+
+    private RecipeEntry writeShard(final Recipe recipe) throws IOException {
+	final String hash = ContentHash.of(recipe);
+	final Path shardFilePath = getShardFilePath(hash);
+	// an existing shard has the same content, because it is named by its hash
+	if (!Files.exists(shardFilePath)) {
+	    Files.createDirectories(shardDirectory);
+	    write(shardFilePath, jsonParser.toJson(recipe, Recipe.class));
+	}
+	return new RecipeEntry(recipe.name(), recipe.group(), hash);
+    }
+
+    // the manifest is replaced after all of its shards exist, so a crash never
+    // leaves a manifest with missing shards behind
+    private void writeManifest(final Manifest manifest) throws IOException {
+	final List<RecipeEntry> sortedRecipeEntries = new ArrayList<>(manifest.recipes());
+	sortedRecipeEntries.sort((e1, e2) -> {
+	    return e1.name()
+		    .compareTo(e2.name());
+	});
+	Files.createDirectories(shardDirectory);
+	write(manifestFilePath, jsonParser.toJson(new Manifest(manifest.name(), manifest.author(), sortedRecipeEntries)));
+    }
+
+    // returns the removed entries
+    private static List<RecipeEntry> removeRecipeEntries(final List<RecipeEntry> recipeEntries, final Set<String> recipeNames) {
+	final List<RecipeEntry> removedRecipeEntries = new ArrayList<>();
+	recipeEntries.removeIf(recipeEntry -> {
+	    if (recipeNames.contains(recipeEntry.name())) {
+		removedRecipeEntries.add(recipeEntry);
+		return true;
+	    }
+	    return false;
+	});
+	return removedRecipeEntries;
+    }
+
+    // only the shards of the removed entries, so that storing a single recipe
+    // doesn't list the whole shard directory, an unchanged recipe keeps its shard
+    private void deleteShards(final List<RecipeEntry> removedRecipeEntries, final List<RecipeEntry> recipeEntries) throws IOException {
+	if (removedRecipeEntries.isEmpty()) {
+	    return;
+	}
+	final Set<String> usedHashes = new HashSet<>();
+	for (final RecipeEntry recipeEntry : recipeEntries) {
+	    usedHashes.add(recipeEntry.hash());
+	}
+	for (final RecipeEntry removedRecipeEntry : removedRecipeEntries) {
+	    if (!usedHashes.contains(removedRecipeEntry.hash())) {
+		Files.deleteIfExists(getShardFilePath(removedRecipeEntry.hash()));
+	    }
+	}
+    }
+
+    // also deletes shards left behind by a crash or by other programs
+    private void deleteUnusedShards(final List<RecipeEntry> recipeEntries) throws IOException {
+	final Set<Path> usedShardFilePaths = new HashSet<>();
+	for (final RecipeEntry recipeEntry : recipeEntries) {
+	    usedShardFilePaths.add(getShardFilePath(recipeEntry.hash()));
+	}
+	try (final DirectoryStream<Path> shardFilePaths = Files.newDirectoryStream(shardDirectory, "*" + SHARD_FILE_EXTENSION)) {
+	    for (final Path shardFilePath : shardFilePaths) {
+		if (!usedShardFilePaths.contains(shardFilePath)) {
+		    Files.deleteIfExists(shardFilePath);
+		}
+	    }
+	}
+    }
+
+    Path getShardFilePath(final String hash) {
+	return shardDirectory.resolve(hash + SHARD_FILE_EXTENSION);
+    }
+
+    private void write(final Path filePath, final String content) throws IOException {
+	final Path temporaryFilePath = AtomicFiles.createSibling(filePath);
+	try {
+	    try (final FileChannel channel = FileChannel.open(temporaryFilePath, StandardOpenOption.WRITE)) {
+		final ByteBuffer bytes = StandardCharsets.UTF_8.encode(content);
+		while (bytes.hasRemaining()) {
+		    channel.write(bytes);
+		}
+		channel.force(true);
+	    }
+	    AtomicFiles.replace(temporaryFilePath, filePath);
+	} finally {
+	    Files.deleteIfExists(temporaryFilePath);
+	}
+    }
+
+    public record Manifest(String name, String author, List<RecipeEntry> recipes) {
+    }
+
+    public record RecipeEntry(String name, String group, String hash) {
+    }
+}
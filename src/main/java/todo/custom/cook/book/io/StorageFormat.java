@@ -0,0 +1,5 @@
+package todo.custom.cook.book.io;
+
+public enum StorageFormat {
+    JSON, BINARY
+}
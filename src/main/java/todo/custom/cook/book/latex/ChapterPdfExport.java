@@ -0,0 +1,156 @@
+package todo.custom.cook.book.latex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.util.ContentHash;
+import todo.custom.cook.book.util.SortedRecipeIndex;
+import static todo.jlatex.LatexCommand.command;
+
+/*
+ * Compiles every chapter as a document of its own in parallel pdflatex
+ * processes and assembles the chapter PDFs with pdfpages. Chapters whose LaTeX
+ * didn't change since the last export are not compiled again.
+ */
+public final class ChapterPdfExport {
+    private static final String CHAPTER_FILE_PREFIX = "chapter-";
+    private static final String COOK_BOOK_JOB_NAME = "cookBook";
+
+    private final CookBookToLatex cookBookToLatex;
+    private final Path directory;
+    private final int numberOfWorkers;
+
+    public ChapterPdfExport(final CookBook cookBook, final RecipeFragmentCache recipeFragmentCache, final Path directory, final int numberOfWorkers) {
+	this(cookBook, SortedRecipeIndex.of(cookBook), recipeFragmentCache, directory, numberOfWorkers);
+    }
+
+    public ChapterPdfExport(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final RecipeFragmentCache recipeFragmentCache, final Path directory, final int numberOfWorkers) {
+	this.cookBookToLatex = new CookBookToLatex(cookBook, recipeIndex, recipeFragmentCache);
+	this.directory = directory;
+	this.numberOfWorkers = Math.max(1, numberOfWorkers);
+    }
+
+    public Path export() throws IOException, InterruptedException {
+	Files.createDirectories(directory);
+	copyTitleBackground(directory);
+	final List<CookBookToLatex.Chapter> chapters = cookBookToLatex.getChapters();
+	final List<String> jobNames = new ArrayList<>(chapters.size());
+	final List<String> outdatedJobNames = new ArrayList<>();
+	for (int i = 0; i < chapters.size(); i++) {
+	    final CookBookToLatex.Chapter chapter = chapters.get(i);
+	    final String jobName = CHAPTER_FILE_PREFIX + ContentHash.of(chapter.groupName())
+		    .substring(0, 16);
+	    jobNames.add(jobName);
+	    if (writeIfChanged(jobName, renderChapterDocument(chapter, i))) {
+		outdatedJobNames.add(jobName);
+	    }
+	}
+	deleteRemovedChapters(new HashSet<>(jobNames));
+	compileInParallel(outdatedJobNames);
+	writeIfChanged(COOK_BOOK_JOB_NAME, renderCookBookDocument(chapters, jobNames));
+	return LatexCompiler.compile(directory, COOK_BOOK_JOB_NAME);
+    }
+
+    private String renderChapterDocument(final CookBookToLatex.Chapter chapter, final int chapterIndex) {
+	// page numbers are stamped onto the pages when they are included into the
+	// cook book, so that they are continuous
+	return new LatexText().plain(cookBookToLatex.getHeader())
+		.line(command("pagestyle", "empty"))
+		.line(command("renewcommand*", "\\chapterpagestyle", "empty"))
+		.beginEnvironment("document")
+		.line(command("setcounter", "chapter", chapterIndex))
+		.plain(chapter.content())
+		.endEnvironment("document")
+		.toString();
+    }
+
+    private String renderCookBookDocument(final List<CookBookToLatex.Chapter> chapters, final List<String> jobNames) {
+	final LatexText latexText = new LatexText();
+	latexText.plain(cookBookToLatex.getHeader("pdfpages"))
+		.beginEnvironment("document")
+		.plain(cookBookToLatex.getTitlePage());
+	for (int i = 0; i < chapters.size(); i++) {
+	    final String jobName = jobNames.get(i);
+	    latexText.format("\\includepdf[pages=-,pagecommand={\\thispagestyle{plain}},addtotoc={1,chapter,0,{%},%}]{%.pdf}", chapters.get(i)
+		    .groupName(), jobName, jobName);
+	}
+	return latexText.plain(cookBookToLatex.getAppendix())
+		.endEnvironment("document")
+		.toString();
+    }
+
+    // the PDF of changed LaTeX is deleted, so that it isn't taken as up to date
+    // next time if the compilation fails
+    private boolean writeIfChanged(final String jobName, final String content) throws IOException {
+	final Path texFile = directory.resolve(jobName + ".tex");
+	final Path pdfFile = directory.resolve(jobName + ".pdf");
+	if (Files.exists(pdfFile) && Files.exists(texFile) && Files.readString(texFile, StandardCharsets.UTF_8)
+		.equals(content)) {
+	    return false;
+	}
+	Files.deleteIfExists(pdfFile);
+	Files.writeString(texFile, content, StandardCharsets.UTF_8);
+	return true;
+    }
+
+    private void compileInParallel(final List<String> jobNames) throws InterruptedException {
+	final ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfWorkers, Math.max(1, jobNames.size())));
+	try {
+	    final List<Future<Path>> compilations = new ArrayList<>(jobNames.size());
+	    for (final String jobName : jobNames) {
+		compilations.add(executor.submit(() -> {
+		    try {
+			return LatexCompiler.compile(directory, jobName);
+		    } catch (final Exception e) {
+			// pdflatex might have written some pages before it failed
+			Files.deleteIfExists(directory.resolve(jobName + ".pdf"));
+			throw e;
+		    }
+		}));
+	    }
+	    for (final Future<Path> compilation : compilations) {
+		compilation.get();
+	    }
+	} catch (final ExecutionException e) {
+	    if (e.getCause() instanceof RuntimeException runtimeException) {
+		throw runtimeException;
+	    }
+	    throw new IllegalStateException("Unable to compile chapter", e.getCause());
+	} finally {
+	    executor.shutdownNow();
+	}
+    }
+
+    private void deleteRemovedChapters(final Set<String> jobNames) throws IOException {
+	try (final DirectoryStream<Path> chapterFiles = Files.newDirectoryStream(directory, CHAPTER_FILE_PREFIX + "*")) {
+	    for (final Path chapterFile : chapterFiles) {
+		final String fileName = chapterFile.getFileName()
+			.toString();
+		final String jobName = fileName.substring(0, fileName.indexOf('.') < 0 ? fileName.length() : fileName.indexOf('.'));
+		if (!jobNames.contains(jobName)) {
+		    Files.delete(chapterFile);
+		}
+	    }
+	}
+    }
+
+    static void copyTitleBackground(final Path directory) throws IOException {
+	final Path titleBackground = Path.of("title.png");
+	if (Files.exists(titleBackground)) {
+	    Files.copy(titleBackground, directory.resolve("title.png"), StandardCopyOption.REPLACE_EXISTING);
+	}
+    }
+}
@@ -1,60 +1,89 @@
 package todo.custom.cook.book.latex;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 import todo.custom.cook.book.entity.CookBook;
 import todo.custom.cook.book.entity.Ingredient;
 import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.shopping.ShoppingList;
+import todo.custom.cook.book.util.SortedRecipeIndex;
 import todo.jlatex.LatexDocument;
 import static todo.jlatex.LatexCommand.command;
 
 public final class CookBookToLatex {
-    private final LatexDocument latexDocument;
+    private static final boolean RENDER_IN_PARALLEL_BY_DEFAULT = Boolean.parseBoolean(System.getProperty("cookbook.latex.parallel", "true"));
+    private static final String DOCUMENT_CLASS = "scrbook";
+    private static final String DOCUMENT_CLASS_OPTIONS = "12pt, headings=big";
+    private static final List<LatexPackage> PACKAGES = List.of(new LatexPackage("babel", "ngerman"), new LatexPackage("fontenc", "T1"), new LatexPackage("lmodern"), new LatexPackage("enumitem"), new LatexPackage("makecell"), new LatexPackage("tikz"), new LatexPackage("longtable"), new LatexPackage("graphicx"), new LatexPackage("eso-pic"), new LatexPackage("xcolor"), new LatexPackage("hyperref", "hidelinks"));
+
     private final CookBook cookBook;
-    private final Map<String, Set<Recipe>> recipesByGroupName;
+    private final SortedRecipeIndex<?> recipeIndex;
+    private final RecipeFragmentCache recipeFragmentCache;
+    private final boolean renderInParallel;
+    private final String preamble;
+    private final String titlePage;
+    private final String appendix;
+    private List<Chapter> chapters;
+    private LatexDocument latexDocument;
 
     public CookBookToLatex(final CookBook cookBook) {
-	this.latexDocument = new LatexDocument("scrbook", "12pt, headings=big");
+	this(cookBook, new RecipeFragmentCache());
+    }
+
+    public CookBookToLatex(final CookBook cookBook, final RecipeFragmentCache recipeFragmentCache) {
+	this(cookBook, recipeFragmentCache, RENDER_IN_PARALLEL_BY_DEFAULT);
+    }
+
+    public CookBookToLatex(final CookBook cookBook, final RecipeFragmentCache recipeFragmentCache, final boolean renderInParallel) {
+	this(cookBook, SortedRecipeIndex.of(cookBook), recipeFragmentCache, renderInParallel);
+    }
+
+    // the index has to contain exactly the recipes of the cook book
+    public CookBookToLatex(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final RecipeFragmentCache recipeFragmentCache) {
+	this(cookBook, recipeIndex, recipeFragmentCache, RENDER_IN_PARALLEL_BY_DEFAULT);
+    }
+
+    public CookBookToLatex(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final RecipeFragmentCache recipeFragmentCache, final boolean renderInParallel) {
+	this(cookBook, recipeIndex, new ShoppingList(), recipeFragmentCache, renderInParallel);
+    }
+
+    // a non-empty shopping list is appended to the recipes
+    public CookBookToLatex(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final ShoppingList shoppingList, final RecipeFragmentCache recipeFragmentCache) {
+	this(cookBook, recipeIndex, shoppingList, recipeFragmentCache, RENDER_IN_PARALLEL_BY_DEFAULT);
+    }
+
+    // the chapters are only rendered once they are needed, so that they aren't held
+    // in memory when the document is written by write(Writer)
+    public CookBookToLatex(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final ShoppingList shoppingList, final RecipeFragmentCache recipeFragmentCache, final boolean renderInParallel) {
 	this.cookBook = cookBook;
-	this.recipesByGroupName = orderByGroupName();
-	addPreamble();
-	latexDocument.beginDocument();
-	addTitlePage();
-	addRecipes();
-	latexDocument.endDocument();
-    }
-
-    private void addPreamble() {
-	latexDocument.usePackage("babel", "ngerman")
-		.usePackage("fontenc", "T1")
-		.usePackage("lmodern")
-		.usePackage("enumitem")
-		.usePackage("makecell")
-		.usePackage("tikz")
-		.usePackage("longtable")
-		.usePackage("graphicx")
-		.usePackage("eso-pic")
-		.usePackage("xcolor")
-		.usePackage("hyperref", "hidelinks")
-		.line(command("title", cookBook.name()))
+	this.recipeIndex = recipeIndex;
+	this.recipeFragmentCache = recipeFragmentCache;
+	this.renderInParallel = renderInParallel;
+	this.preamble = renderPreamble();
+	this.titlePage = renderTitlePage();
+	this.appendix = renderAppendix(shoppingList);
+    }
+
+    private String renderPreamble() {
+	final LatexText latexText = new LatexText();
+	latexText.line(command("title", cookBook.name()))
 		.line(command("author", cookBook.author()))
 		.line(command("setlength", "\\parindent", "0cm"));
-	formatChapterAndSection();
+	formatChapterAndSection(latexText);
+	return latexText.toString();
     }
 
-    private void formatChapterAndSection() {
-	latexDocument.plain("""
+    private void formatChapterAndSection(final LatexText latexText) {
+	latexText.plain("""
 		\\setkomafont{chapter}{\\fontsize{50}{60}\\selectfont\\fontfamily{pzc}\\selectfont}
 		\\renewcommand*{\\chapterformat}{%
 		\\centering\\chaptername~\\thechapter\\par\\vspace{0.1cm}%
@@ -66,15 +95,16 @@ public final class CookBookToLatex {
 		.line(command("renewcommand*", "\\chapterheadstartvskip", command("vspace*", "0cm")));
     }
 
-    private void addTitlePage() {
+    private String renderTitlePage() {
 	final int numberOfRecipes = cookBook.recipes()
 		.size();
-	final int numberOfGroups = recipesByGroupName.keySet()
+	final int numberOfGroups = recipeIndex.getGroupNames()
 		.size();
-	latexDocument.line(command("frontmatter"))
+	final LatexText latexText = new LatexText();
+	latexText.line(command("frontmatter"))
 		.beginEnvironment("titlepage");
-	addBackground();
-	latexDocument.line(command("centering"))
+	addBackground(latexText);
+	latexText.line(command("centering"))
 		.line(command("color", "orange"))
 		.line(command("vspace*", command("fill")))
 		.format("\\fontsize{80}{96}\\selectfont")
@@ -94,38 +124,46 @@ public final class CookBookToLatex {
 		.endEnvironment("titlepage")
 		.line(command("tableofcontents"))
 		.line(command("mainmatter"));
+	return latexText.toString();
     }
 
-    private void addBackground() {
+    private void addBackground(final LatexText latexText) {
 	if (Files.exists(Path.of("title.png"))) {
-	    latexDocument.plain("""
+	    latexText.plain("""
 	    	\\AddToShipoutPictureBG*{\\includegraphics[width=\\paperwidth,height=\\paperheight]{title.png}}
 	    			""");
 	}
     }
 
-    private void addRecipes() {
-	final List<String> sortedGroupNames = new ArrayList<>(recipesByGroupName.keySet());
-	Collections.sort(sortedGroupNames);
-	for (final String groupName : sortedGroupNames) {
-	    latexDocument.line(command("chapter", groupName));
-	    addRecipesOfGroup(groupName);
+    private List<Chapter> renderChapters() {
+	final List<String> sortedGroupNames = new ArrayList<>(recipeIndex.getGroupNames());
+	// each chapter is rendered into its own buffer, so the output doesn't depend on
+	// the rendering mode
+	if (renderInParallel) {
+	    return sortedGroupNames.parallelStream()
+		    .map(groupName -> new Chapter(groupName, renderChapter(groupName)))
+		    .toList();
 	}
+	return sortedGroupNames.stream()
+		.map(groupName -> new Chapter(groupName, renderChapter(groupName)))
+		.toList();
     }
 
-    private void addRecipesOfGroup(final String groupName) {
-	final List<Recipe> sortedRecipes = new ArrayList<>(recipesByGroupName.get(groupName));
-	sortedRecipes.sort((r1, r2) -> {
-	    return r1.name()
-		    .compareTo(r2.name());
-	});
-	for (final Recipe recipe : sortedRecipes) {
-	    addRecipe(recipe);
+    private String renderChapter(final String groupName) {
+	final LatexText latexText = new LatexText();
+	latexText.line(command("chapter", groupName));
+	for (final SortedRecipeIndex.SortedRecipe sortedRecipe : recipeIndex.getRecipes(groupName)) {
+	    latexText.plain(recipeFragmentCache.get(sortedRecipe.recipe(), recipe -> {
+		return renderRecipe(sortedRecipe);
+	    }));
 	}
+	return latexText.toString();
     }
 
-    private void addRecipe(final Recipe recipe) {
-	latexDocument.line(command("section", recipe.name()))
+    private String renderRecipe(final SortedRecipeIndex.SortedRecipe sortedRecipe) {
+	final Recipe recipe = sortedRecipe.recipe();
+	final LatexText latexText = new LatexText();
+	latexText.line(command("section", recipe.name()))
 		.format("%: %\\\\", command("textit", "Zubereitungsdauer"), recipe.duration())
 		.format("%: %\\\\", command("textit", "Portionen"), recipe.numberOfPortions())
 		.format("%:", command("textit", "Zutaten"))
@@ -134,27 +172,38 @@ public final class CookBookToLatex {
 		.format("%\\\\", command("multicolumn", 2, "r", command("textit", "Weiter auf nächster Seite")))
 		.line(command("endfoot"))
 		.line(command("endlastfoot"));
-	final List<Ingredient> sortedIngredients = new ArrayList<>(recipe.ingredients());
-	sortedIngredients.sort((i1, i2) -> {
-	    return i1.name()
-		    .compareTo(i2.name());
-	});
-	for (final Ingredient ingredient : sortedIngredients) {
-	    latexDocument.format("% & %\\\\", ingredient.amount(), ingredient.name());
+	for (final Ingredient ingredient : sortedRecipe.ingredients()) {
+	    latexText.format("% & %\\\\", ingredient.amount(), ingredient.name());
 	}
-	latexDocument.endEnvironment("longtable");
-	addSeparator();
-	latexDocument.format("\\textit{Zubereitungsschritte}")
+	latexText.endEnvironment("longtable");
+	addSeparator(latexText);
+	latexText.format("\\textit{Zubereitungsschritte}")
 		.beginEnvironment("enumerate");
 	for (final String step : recipe.steps()) {
-	    latexDocument.format("% %", command("item"), step);
+	    latexText.format("% %", command("item"), step);
 	}
-	latexDocument.endEnvironment("enumerate")
+	latexText.endEnvironment("enumerate")
 		.line(command("newpage"));
+	return latexText.toString();
+    }
+
+    private String renderAppendix(final ShoppingList shoppingList) {
+	if (shoppingList.isEmpty()) {
+	    return "";
+	}
+	final LatexText latexText = new LatexText();
+	latexText.line(command("appendix"))
+		.line(command("chapter", "Einkaufsliste"))
+		.beginEnvironment("longtable", "@{}rl@{}");
+	for (final ShoppingList.Item item : shoppingList.getItems()) {
+	    latexText.format("% & %\\\\", item.amount(), item.name());
+	}
+	return latexText.endEnvironment("longtable")
+		.toString();
     }
 
-    private void addSeparator() {
-	latexDocument.plain("""
+    private void addSeparator(final LatexText latexText) {
+	latexText.plain("""
 		\\begin{center}
 		\\begin{tikzpicture}
 		\\draw (-4,0) -- (-0.9,0);
@@ -172,25 +221,103 @@ public final class CookBookToLatex {
 					""");
     }
 
-    private Map<String, Set<Recipe>> orderByGroupName() {
-	final Map<String, Set<Recipe>> map = new HashMap<>();
-	for (final Recipe recipe : cookBook.recipes()) {
-	    if (!map.containsKey(recipe.group())) {
-		map.put(recipe.group(), new HashSet<>());
-	    }
-	    final Set<Recipe> recipesOfSameGroup = map.get(recipe.group());
-	    recipesOfSameGroup.add(recipe);
-	}
-	return map;
-    }
-
-    private String getDate() {
+    static String getDate() {
 	final LocalDate today = LocalDate.now();
 	final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.GERMAN);
 	return today.format(formatter);
     }
 
     public LatexDocument get() {
+	if (latexDocument == null) {
+	    latexDocument = new LatexDocument(DOCUMENT_CLASS, DOCUMENT_CLASS_OPTIONS);
+	    for (final LatexPackage latexPackage : PACKAGES) {
+		if (latexPackage.options()
+			.isEmpty()) {
+		    latexDocument.usePackage(latexPackage.name());
+		} else {
+		    latexDocument.usePackage(latexPackage.name(), latexPackage.options());
+		}
+	    }
+	    latexDocument.plain(preamble)
+		    .beginDocument();
+	    latexDocument.plain(titlePage);
+	    for (final Chapter chapter : getChapters()) {
+		latexDocument.plain(chapter.content());
+	    }
+	    latexDocument.plain(appendix)
+		    .endDocument();
+	}
 	return latexDocument;
     }
+
+    // document class, packages and preamble for documents that are not built via
+    // LatexDocument
+    String getHeader(final String... additionalPackages) {
+	final LatexText latexText = new LatexText();
+	latexText.format("\\documentclass[%]{%}", DOCUMENT_CLASS_OPTIONS, DOCUMENT_CLASS);
+	for (final LatexPackage latexPackage : PACKAGES) {
+	    if (latexPackage.options()
+		    .isEmpty()) {
+		latexText.format("\\usepackage{%}", latexPackage.name());
+	    } else {
+		latexText.format("\\usepackage[%]{%}", latexPackage.options(), latexPackage.name());
+	    }
+	}
+	for (final String additionalPackage : additionalPackages) {
+	    latexText.format("\\usepackage{%}", additionalPackage);
+	}
+	return latexText.plain(preamble)
+		.toString();
+    }
+
+    String getTitlePage() {
+	return titlePage;
+    }
+
+    String getAppendix() {
+	return appendix;
+    }
+
+    List<Chapter> getChapters() {
+	if (chapters == null) {
+	    try (final Metrics.Timing timing = Metrics.time(Metrics.LATEX)) {
+		chapters = renderChapters();
+		recipeFragmentCache.evictUnused();
+	    }
+	}
+	return chapters;
+    }
+
+    // streams the whole document recipe by recipe, fragments which are not cached
+    // in memory yet are only held until they are written
+    public void write(final Writer writer) throws IOException {
+	try (final Metrics.Timing timing = Metrics.time(Metrics.LATEX)) {
+	    writer.write(getHeader());
+	    writer.write(new LatexText().beginEnvironment("document")
+		    .plain(titlePage)
+		    .toString());
+	    for (final String groupName : recipeIndex.getGroupNames()) {
+		writer.write(new LatexText().line(command("chapter", groupName))
+			.toString());
+		for (final SortedRecipeIndex.SortedRecipe sortedRecipe : recipeIndex.getRecipes(groupName)) {
+		    writer.write(recipeFragmentCache.getTransient(sortedRecipe.recipe(), recipe -> {
+			return renderRecipe(sortedRecipe);
+		    }));
+		}
+	    }
+	    writer.write(appendix);
+	    writer.write(new LatexText().endEnvironment("document")
+		    .toString());
+	    recipeFragmentCache.evictUnused();
+	}
+    }
+
+    record Chapter(String groupName, String content) {
+    }
+
+    private record LatexPackage(String name, String options) {
+	private LatexPackage(final String name) {
+	    this(name, "");
+	}
+    }
 }
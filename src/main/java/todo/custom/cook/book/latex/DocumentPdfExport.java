@@ -0,0 +1,57 @@
+package todo.custom.cook.book.latex;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.shopping.ShoppingList;
+import todo.custom.cook.book.util.SortedRecipeIndex;
+
+/*
+ * Compiles the whole cook book as a single document in a directory of its own,
+ * so that several cook books can be exported at the same time. The LaTeX is
+ * streamed into the file while it is rendered instead of being assembled in
+ * memory.
+ */
+public final class DocumentPdfExport {
+    private static final String COOK_BOOK_JOB_NAME = "cookBook";
+
+    private final CookBookToLatex cookBookToLatex;
+    private final Path directory;
+
+    public DocumentPdfExport(final CookBook cookBook, final RecipeFragmentCache recipeFragmentCache, final Path directory) {
+	this(cookBook, SortedRecipeIndex.of(cookBook), recipeFragmentCache, directory);
+    }
+
+    public DocumentPdfExport(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final RecipeFragmentCache recipeFragmentCache, final Path directory) {
+	this(cookBook, recipeIndex, new ShoppingList(), recipeFragmentCache, directory);
+    }
+
+    public DocumentPdfExport(final CookBook cookBook, final SortedRecipeIndex<?> recipeIndex, final ShoppingList shoppingList, final RecipeFragmentCache recipeFragmentCache, final Path directory) {
+	this.cookBookToLatex = new CookBookToLatex(cookBook, recipeIndex, shoppingList, recipeFragmentCache);
+	this.directory = directory;
+    }
+
+    public Path writeLatex() throws IOException {
+	Files.createDirectories(directory);
+	ChapterPdfExport.copyTitleBackground(directory);
+	final Path texFile = directory.resolve(COOK_BOOK_JOB_NAME + ".tex");
+	try (final Writer writer = Files.newBufferedWriter(texFile, StandardCharsets.UTF_8)) {
+	    cookBookToLatex.write(writer);
+	}
+	return texFile;
+    }
+
+    public Path export() throws IOException, InterruptedException {
+	writeLatex();
+	return compile();
+    }
+
+    // compiles the LaTeX written by writeLatex()
+    public Path compile() throws IOException, InterruptedException {
+	return LatexCompiler.compile(directory, COOK_BOOK_JOB_NAME);
+    }
+}
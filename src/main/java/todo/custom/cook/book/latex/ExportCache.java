@@ -0,0 +1,49 @@
+package todo.custom.cook.book.latex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.io.AtomicFiles;
+import todo.custom.cook.book.util.ContentHash;
+
+/*
+ * Remembers the content hash of the last exported cook book next to the
+ * exported file, so that an export of an unchanged cook book can be skipped.
+ */
+public final class ExportCache {
+    private final Path outputFile;
+    private final Path hashFile;
+
+    public ExportCache(final Path outputFile) {
+	this.outputFile = outputFile;
+	this.hashFile = outputFile.resolveSibling(outputFile.getFileName() + ".hash");
+    }
+
+    public String hash(final CookBook cookBook, final String exportMode) throws IOException {
+	// everything that ends up in the PDF, i.e., also the title page background and
+	// the month on the title page
+	return ContentHash.of(ContentHash.of(cookBook), ContentHash.of(Path.of("title.png")), CookBookToLatex.getDate(), exportMode);
+    }
+
+    // a deleted output file is exported again, even if the cook book is unchanged
+    public boolean isUpToDate(final String hash) throws IOException {
+	return Files.exists(outputFile) && Files.exists(hashFile) && Files.readString(hashFile, StandardCharsets.UTF_8)
+		.equals(hash);
+    }
+
+    public void update(final String hash) throws IOException {
+	final Path directory = hashFile.toAbsolutePath()
+		.getParent();
+	Files.createDirectories(directory);
+	final Path temporaryFilePath = AtomicFiles.createSibling(hashFile);
+	try {
+	    Files.writeString(temporaryFilePath, hash, StandardCharsets.UTF_8);
+	    AtomicFiles.replace(temporaryFilePath, hashFile);
+	} finally {
+	    Files.deleteIfExists(temporaryFilePath);
+	}
+    }
+}
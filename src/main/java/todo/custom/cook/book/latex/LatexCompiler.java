@@ -0,0 +1,64 @@
+package todo.custom.cook.book.latex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+import todo.custom.cook.book.metrics.Metrics;
+
+/*
+ * Runs pdflatex in a separate process, in contrast to todo.jlatex.GeneratePdf
+ * the working directory can be chosen, so that several documents can be
+ * compiled at the same time. The number of pdflatex processes running at the
+ * same time is bounded for the whole application.
+ */
+final class LatexCompiler {
+    private static final int MAXIMUM_NUMBER_OF_RUNS = 3;
+    private static final Semaphore PROCESSES = new Semaphore(Math.max(1, Integer.getInteger("cookbook.latex.processes", Runtime.getRuntime()
+	    .availableProcessors())));
+
+    private LatexCompiler() {
+    }
+
+    static Path compile(final Path directory, final String jobName) throws IOException, InterruptedException {
+	try (final Metrics.Timing timing = Metrics.time(Metrics.PDF)) {
+	    return compileWithReruns(directory, jobName);
+	}
+    }
+
+    private static Path compileWithReruns(final Path directory, final String jobName) throws IOException, InterruptedException {
+	for (int run = 1; run <= MAXIMUM_NUMBER_OF_RUNS; run++) {
+	    final int exitCode = run(directory, jobName);
+	    final Path logFile = directory.resolve(jobName + ".log");
+	    if (exitCode != 0) {
+		throw new IllegalStateException(String.format("pdflatex failed for %s with exit code %d, see %s", jobName, exitCode, logFile));
+	    }
+	    // longtable, the table of contents and hyperref need further runs until
+	    // their auxiliary data is stable
+	    if (!Files.exists(logFile) || !Files.readString(logFile, StandardCharsets.ISO_8859_1)
+		    .contains("Rerun")) {
+		break;
+	    }
+	}
+	return directory.resolve(jobName + ".pdf");
+    }
+
+    private static int run(final Path directory, final String jobName) throws IOException, InterruptedException {
+	PROCESSES.acquire();
+	try {
+	    final Process process = new ProcessBuilder("pdflatex", "-interaction=nonstopmode", "-halt-on-error", jobName + ".tex").directory(directory.toFile())
+		    .redirectErrorStream(true)
+		    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+		    .start();
+	    try {
+		return process.waitFor();
+	    } finally {
+		process.destroy();
+	    }
+	} finally {
+	    PROCESSES.release();
+	}
+    }
+}
@@ -0,0 +1,60 @@
+package todo.custom.cook.book.latex;
+
+/*
+ * Renders LaTeX into plain text with the same building blocks as
+ * todo.jlatex.LatexDocument, so that parts of a document can be cached and
+ * reassembled.
+ */
+final class LatexText {
+    private final StringBuilder text = new StringBuilder();
+
+    LatexText line(final Object line) {
+	text.append(line)
+		.append('\n');
+	return this;
+    }
+
+    LatexText format(final String format, final Object... arguments) {
+	int argumentIndex = 0;
+	for (int i = 0; i < format.length(); i++) {
+	    final char character = format.charAt(i);
+	    if (character == '%' && argumentIndex < arguments.length) {
+		text.append(arguments[argumentIndex++]);
+	    } else {
+		text.append(character);
+	    }
+	}
+	text.append('\n');
+	return this;
+    }
+
+    LatexText plain(final String plain) {
+	text.append(plain);
+	return this;
+    }
+
+    LatexText beginEnvironment(final String name, final Object... arguments) {
+	text.append("\\begin{")
+		.append(name)
+		.append('}');
+	for (final Object argument : arguments) {
+	    text.append('{')
+		    .append(argument)
+		    .append('}');
+	}
+	text.append('\n');
+	return this;
+    }
+
+    LatexText endEnvironment(final String name) {
+	text.append("\\end{")
+		.append(name)
+		.append("}\n");
+	return this;
+    }
+
+    @Override
+    public String toString() {
+	return text.toString();
+    }
+}
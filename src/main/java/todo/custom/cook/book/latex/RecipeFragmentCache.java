@@ -0,0 +1,116 @@
+package todo.custom.cook.book.latex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.util.ContentHash;
+
+/*
+ * LaTeX fragments of recipes keyed by the content hash of the recipe, so that
+ * only changed recipes need to be rendered again on a re-export.
+ */
+public final class RecipeFragmentCache {
+    // increment whenever the rendering of a recipe changes to invalidate stored fragments
+    private static final String FRAGMENT_VERSION = "1";
+    private static final String FILE_EXTENSION = ".tex";
+
+    private final Map<String, String> fragmentsByKey = new ConcurrentHashMap<>();
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+    private final Optional<Path> directory;
+
+    public RecipeFragmentCache() {
+	this.directory = Optional.empty();
+    }
+
+    public RecipeFragmentCache(final Path directory) {
+	this.directory = Optional.of(directory);
+    }
+
+    String get(final Recipe recipe, final Function<Recipe, String> renderer) {
+	final String key = request(recipe);
+	return fragmentsByKey.computeIfAbsent(key, k -> {
+	    return loadOrRender(k, recipe, renderer);
+	});
+    }
+
+    // like get(), but a fragment which isn't in memory yet isn't kept there either
+    String getTransient(final Recipe recipe, final Function<Recipe, String> renderer) {
+	final String key = request(recipe);
+	final String fragment = fragmentsByKey.get(key);
+	return fragment != null ? fragment : loadOrRender(key, recipe, renderer);
+    }
+
+    // drops all fragments which were not requested since the last call
+    void evictUnused() {
+	fragmentsByKey.keySet()
+		.retainAll(usedKeys);
+	if (directory.isPresent() && Files.isDirectory(directory.get())) {
+	    try (final DirectoryStream<Path> fragmentFiles = Files.newDirectoryStream(directory.get(), "*" + FILE_EXTENSION)) {
+		for (final Path fragmentFile : fragmentFiles) {
+		    final String fileName = fragmentFile.getFileName()
+			    .toString();
+		    if (!usedKeys.contains(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()))) {
+			Files.delete(fragmentFile);
+		    }
+		}
+	    } catch (final IOException e) {
+		throw new UncheckedIOException("Unable to clean up the LaTeX cache", e);
+	    }
+	}
+	usedKeys.clear();
+    }
+
+    private String request(final Recipe recipe) {
+	final String key = FRAGMENT_VERSION + "-" + ContentHash.of(recipe);
+	usedKeys.add(key);
+	Metrics.increment(Metrics.FRAGMENT_REQUESTS);
+	return key;
+    }
+
+    private String loadOrRender(final String key, final Recipe recipe, final Function<Recipe, String> renderer) {
+	return load(key).orElseGet(() -> {
+	    Metrics.increment(Metrics.FRAGMENT_RENDERS);
+	    final String fragment = renderer.apply(recipe);
+	    store(key, fragment);
+	    return fragment;
+	});
+    }
+
+    private Optional<String> load(final String key) {
+	if (directory.isEmpty()) {
+	    return Optional.empty();
+	}
+	final Path fragmentFile = directory.get()
+		.resolve(key + FILE_EXTENSION);
+	try {
+	    return Files.exists(fragmentFile) ? Optional.of(Files.readString(fragmentFile, StandardCharsets.UTF_8)) : Optional.empty();
+	} catch (final IOException e) {
+	    // a broken cache entry is simply rendered again
+	    return Optional.empty();
+	}
+    }
+
+    private void store(final String key, final String fragment) {
+	if (directory.isEmpty()) {
+	    return;
+	}
+	try {
+	    Files.createDirectories(directory.get());
+	    Files.writeString(directory.get()
+		    .resolve(key + FILE_EXTENSION), fragment, StandardCharsets.UTF_8);
+	} catch (final IOException e) {
+	    throw new UncheckedIOException("Unable to store LaTeX fragment", e);
+	}
+    }
+}
@@ -0,0 +1,48 @@
+package todo.custom.cook.book.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock-free histogram with one bucket per power of two microseconds, which is
+ * precise enough to spot regressions and cheap enough for every call.
+ */
+final class LatencyHistogram {
+    private static final int NUMBER_OF_BUCKETS = 48;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(final long durationInNanos) {
+	final long durationInMicros = Math.max(0, durationInNanos / 1000);
+	buckets.incrementAndGet(Math.min(NUMBER_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(durationInMicros)));
+	count.increment();
+	sum.add(durationInNanos);
+	max.accumulateAndGet(durationInNanos, Math::max);
+    }
+
+    // the upper bound of the bucket containing the percentile
+    private double getPercentileInMillis(final double percentile) {
+	final long total = count.sum();
+	final long rank = (long) Math.ceil(total * percentile);
+	long seen = 0;
+	for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+	    seen += buckets.get(i);
+	    if (seen >= rank && seen > 0) {
+		return Math.min((1L << i) / 1000.0, max.get() / 1_000_000.0);
+	    }
+	}
+	return max.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+	final long total = count.sum();
+	final double mean = total == 0 ? 0 : sum.sum() / 1_000_000.0 / total;
+	return String.format(Locale.ROOT, "%8d %10.2f %10.2f %10.2f %10.2f %10.2f", total, mean, getPercentileInMillis(0.5), getPercentileInMillis(0.9), getPercentileInMillis(0.99), max.get() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,84 @@
+package todo.custom.cook.book.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * In-process registry of counters and latency histograms of the hot paths. Every
+ * timing is also committed as JFR event, so that it shows up in flight
+ * recordings next to GC and thread activity.
+ */
+public final class Metrics {
+    public static final String LOAD = "cookBook.load";
+    public static final String LOAD_RECIPE = "cookBook.loadRecipe";
+    public static final String SAVE = "cookBook.save";
+    public static final String SAVE_RECIPE = "cookBook.saveRecipe";
+    public static final String COMPACTION = "cookBook.compaction";
+    public static final String IMPORT = "cookBook.import";
+    public static final String LATEX = "latex.generation";
+    public static final String FRAGMENT_REQUESTS = "latex.fragment.requests";
+    public static final String FRAGMENT_RENDERS = "latex.fragment.renders";
+    public static final String PDF = "pdf.compilation";
+    public static final String EDITOR = "editor.construction";
+    public static final String RECIPE_EDITOR = "editor.recipe";
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Timing time(final String name) {
+	return new Timing(name);
+    }
+
+    public static void increment(final String name) {
+	increment(name, 1);
+    }
+
+    public static void increment(final String name, final long amount) {
+	COUNTERS.computeIfAbsent(name, counterName -> new LongAdder())
+		.add(amount);
+    }
+
+    public static String dump() {
+	final StringBuilder dump = new StringBuilder();
+	dump.append(String.format(Locale.ROOT, "%-24s %8s %10s %10s %10s %10s %10s%n", "timing", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+	for (final Map.Entry<String, LatencyHistogram> histogram : new TreeMap<>(HISTOGRAMS).entrySet()) {
+	    dump.append(String.format(Locale.ROOT, "%-24s %s%n", histogram.getKey(), histogram.getValue()));
+	}
+	dump.append(String.format(Locale.ROOT, "%n%-24s %8s%n", "counter", "value"));
+	for (final Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+	    dump.append(String.format(Locale.ROOT, "%-24s %8d%n", counter.getKey(), counter.getValue()
+		    .sum()));
+	}
+	return dump.toString();
+    }
+
+    private static void record(final String name, final long durationInNanos) {
+	HISTOGRAMS.computeIfAbsent(name, histogramName -> new LatencyHistogram())
+		.record(durationInNanos);
+    }
+
+    public static final class Timing implements AutoCloseable {
+	private final String name;
+	private final long start;
+	private final OperationEvent event = new OperationEvent();
+
+	private Timing(final String name) {
+	    this.name = name;
+	    event.operation = name;
+	    event.begin();
+	    this.start = System.nanoTime();
+	}
+
+	@Override
+	public void close() {
+	    record(name, System.nanoTime() - start);
+	    event.commit();
+	}
+    }
+}
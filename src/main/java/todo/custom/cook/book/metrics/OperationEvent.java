@@ -0,0 +1,18 @@
+package todo.custom.cook.book.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("todo.custom.cook.book.Operation")
+@Label("Cook Book Operation")
+@Description("Duration of loading, saving, LaTeX generation, PDF compilation or editor construction")
+@Category("Cook Book")
+@StackTrace(false)
+final class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+}
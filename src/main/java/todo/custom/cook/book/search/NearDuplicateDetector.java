@@ -0,0 +1,220 @@
+package todo.custom.cook.book.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Finds groups of recipes with nearly the same steps and ingredients. Every
+ * recipe gets a MinHash signature of the word triples of its steps and of its
+ * ingredient names, and only recipes whose signatures are equal in at least one
+ * band of rows are compared (locality sensitive hashing). The bands are found by
+ * sorting, so the cost is roughly linear in the number of recipes.
+ */
+public final class NearDuplicateDetector {
+    public static final double DEFAULT_THRESHOLD = 0.8;
+    private static final int NUMBER_OF_BANDS = 16;
+    private static final int ROWS_PER_BAND = 5;
+    private static final int SIGNATURE_LENGTH = NUMBER_OF_BANDS * ROWS_PER_BAND;
+    // larger buckets are only compared with their first recipe instead of pairwise
+    private static final int MAXIMUM_BUCKET_SIZE = 64;
+    private static final int SHINGLE_LENGTH = 3;
+    private static final long INGREDIENT_SALT = 0x9E3779B97F4A7C15L;
+    // the hash function of each row of a signature, multiply-shift hashing
+    private static final long[] MULTIPLIERS = LongStream.rangeClosed(1, SIGNATURE_LENGTH)
+	    .map(i -> {
+		return mix(i) | 1;
+	    })
+	    .toArray();
+    private static final long[] ADDENDS = LongStream.rangeClosed(1, SIGNATURE_LENGTH)
+	    .map(i -> {
+		return mix(i ^ INGREDIENT_SALT);
+	    })
+	    .toArray();
+
+    private final double threshold;
+
+    public NearDuplicateDetector() {
+	this(DEFAULT_THRESHOLD);
+    }
+
+    // the estimated share of common shingles of two recipes to be duplicates
+    public NearDuplicateDetector(final double threshold) {
+	this.threshold = threshold;
+    }
+
+    public List<DuplicateGroup> find(final Collection<Recipe> recipes) {
+	final Recipe[] recipesById = recipes.toArray(new Recipe[0]);
+	final int[][] signatures = new int[recipesById.length][];
+	IntStream.range(0, recipesById.length)
+		.parallel()
+		.forEach(id -> {
+		    signatures[id] = computeSignature(recipesById[id]);
+		});
+	final int[] parents = new int[recipesById.length];
+	Arrays.setAll(parents, id -> {
+	    return id;
+	});
+	final long[] bandKeys = new long[recipesById.length];
+	for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+	    int numberOfBandKeys = 0;
+	    for (int id = 0; id < recipesById.length; id++) {
+		if (signatures[id] != null) {
+		    // the band hash in the upper and the id in the lower half, so that sorting
+		    // puts the recipes of a bucket next to each other
+		    bandKeys[numberOfBandKeys++] = (long) hashBand(signatures[id], band) << 32 | id;
+		}
+	    }
+	    Arrays.sort(bandKeys, 0, numberOfBandKeys);
+	    int bucketStart = 0;
+	    for (int i = 1; i <= numberOfBandKeys; i++) {
+		if (i == numberOfBandKeys || bandKeys[i] >>> 32 != bandKeys[bucketStart] >>> 32) {
+		    compareBucket(bandKeys, bucketStart, i, signatures, parents);
+		    bucketStart = i;
+		}
+	    }
+	}
+	return collectGroups(recipesById, signatures, parents);
+    }
+
+    private void compareBucket(final long[] bandKeys, final int start, final int end, final int[][] signatures, final int[] parents) {
+	final int numberOfComparedRecipes = end - start > MAXIMUM_BUCKET_SIZE ? 1 : end - start;
+	for (int i = start; i < start + numberOfComparedRecipes; i++) {
+	    final int id = (int) bandKeys[i];
+	    for (int j = i + 1; j < end; j++) {
+		final int otherId = (int) bandKeys[j];
+		if (find(parents, id) != find(parents, otherId) && estimateSimilarity(signatures[id], signatures[otherId]) >= threshold) {
+		    parents[find(parents, otherId)] = find(parents, id);
+		}
+	    }
+	}
+    }
+
+    private static List<DuplicateGroup> collectGroups(final Recipe[] recipesById, final int[][] signatures, final int[] parents) {
+	final Map<Integer, List<Integer>> idsByRoot = new HashMap<>();
+	for (int id = 0; id < recipesById.length; id++) {
+	    if (signatures[id] != null) {
+		idsByRoot.computeIfAbsent(find(parents, id), root -> {
+		    return new ArrayList<>();
+		})
+			.add(id);
+	    }
+	}
+	final Comparator<Recipe> nameOrder = Comparator.comparing(Recipe::name, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+	final List<DuplicateGroup> duplicateGroups = new ArrayList<>();
+	for (final List<Integer> ids : idsByRoot.values()) {
+	    if (ids.size() < 2) {
+		continue;
+	    }
+	    final List<Recipe> recipes = new ArrayList<>(ids.size());
+	    double similarity = 1;
+	    for (final int id : ids) {
+		recipes.add(recipesById[id]);
+		similarity = Math.min(similarity, estimateSimilarity(signatures[ids.get(0)], signatures[id]));
+	    }
+	    recipes.sort(nameOrder);
+	    duplicateGroups.add(new DuplicateGroup(recipes, similarity));
+	}
+	duplicateGroups.sort(Comparator.comparing((final DuplicateGroup duplicateGroup) -> {
+	    return duplicateGroup.recipes()
+		    .get(0);
+	}, nameOrder));
+	return duplicateGroups;
+    }
+
+    private static int find(final int[] parents, final int id) {
+	int root = id;
+	while (parents[root] != root) {
+	    // path halving keeps the trees flat
+	    parents[root] = parents[parents[root]];
+	    root = parents[root];
+	}
+	return root;
+    }
+
+    // null for a recipe without steps and ingredients, which is nobody's duplicate
+    private static int[] computeSignature(final Recipe recipe) {
+	final long[] shingles = computeShingles(recipe);
+	if (shingles.length == 0) {
+	    return null;
+	}
+	final int[] signature = new int[SIGNATURE_LENGTH];
+	Arrays.fill(signature, Integer.MAX_VALUE);
+	for (final long shingle : shingles) {
+	    for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+		signature[i] = Math.min(signature[i], (int) ((shingle * MULTIPLIERS[i] + ADDENDS[i]) >>> 32));
+	    }
+	}
+	return signature;
+    }
+
+    // repeated shingles don't change the signature, so they aren't removed
+    private static long[] computeShingles(final Recipe recipe) {
+	final LongStream.Builder shingles = LongStream.builder();
+	for (final String step : recipe.steps()) {
+	    final List<String> words = RecipeSearchIndex.getCanonicalWords(step);
+	    // a step shorter than a shingle is a shingle of its own
+	    final int numberOfShingles = words.isEmpty() ? 0 : Math.max(1, words.size() - SHINGLE_LENGTH + 1);
+	    for (int start = 0; start < numberOfShingles; start++) {
+		long shingle = 0;
+		for (int i = start; i < Math.min(start + SHINGLE_LENGTH, words.size()); i++) {
+		    // mixed per word, as the hash codes of similar words only differ a little
+		    shingle = mix(shingle ^ words.get(i)
+			    .hashCode());
+		}
+		shingles.add(shingle);
+	    }
+	}
+	for (final Ingredient ingredient : recipe.ingredients()) {
+	    final String ingredientName = String.join(" ", RecipeSearchIndex.getCanonicalWords(ingredient.name()));
+	    if (!ingredientName.isEmpty()) {
+		shingles.add(mix(ingredientName.hashCode() ^ INGREDIENT_SALT));
+	    }
+	}
+	return shingles.build()
+		.toArray();
+    }
+
+    private static int hashBand(final int[] signature, final int band) {
+	long hash = band;
+	for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+	    hash = hash * 31 + signature[i];
+	}
+	return (int) mix(hash);
+    }
+
+    private static double estimateSimilarity(final int[] signature, final int[] otherSignature) {
+	int numberOfEqualRows = 0;
+	for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+	    if (signature[i] == otherSignature[i]) {
+		numberOfEqualRows++;
+	    }
+	}
+	return (double) numberOfEqualRows / SIGNATURE_LENGTH;
+    }
+
+    // the finalizer of MurmurHash3, spreads similar values over all bits
+    private static long mix(final long value) {
+	long hash = value;
+	hash ^= hash >>> 33;
+	hash *= 0xff51afd7ed558ccdL;
+	hash ^= hash >>> 33;
+	hash *= 0xc4ceb9fe1a85ec53L;
+	hash ^= hash >>> 33;
+	return hash;
+    }
+
+    // the recipes are sorted by name, the similarity is the lowest estimated one to
+    // the first found recipe of the group
+    public record DuplicateGroup(List<Recipe> recipes, double similarity) {
+    }
+}
@@ -0,0 +1,213 @@
+package todo.custom.cook.book.search;
+
+import java.text.Normalizer;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Inverted index from the words of the name, group, steps and ingredient names
+ * of a recipe to the recipes containing them. Query words match every indexed
+ * word they are a prefix of. Recipes are numbered internally, so that the
+ * postings are bit sets which are cheap to unite and intersect.
+ */
+public final class RecipeSearchIndex<K> {
+    private static final Pattern DIACRITICAL_MARKS = Pattern.compile("\\p{M}+");
+
+    // the same postings twice, the hash map for updates and the sorted map for
+    // prefix queries
+    private final Map<String, BitSet> idsByWord = new HashMap<>();
+    private final NavigableMap<String, BitSet> sortedIdsByWord = new TreeMap<>();
+    private final Map<K, Integer> idsByKey = new HashMap<>();
+    private final Map<K, Set<String>> wordsByKey = new HashMap<>();
+    private final List<K> keysById = new ArrayList<>();
+    private final BitSet usedIds = new BitSet();
+
+    public void update(final K key, final Recipe recipe) {
+	remove(key);
+	final Set<String> words = new HashSet<>();
+	addWords(recipe.name(), words);
+	addWords(recipe.group(), words);
+	for (final String step : recipe.steps()) {
+	    addWords(step, words);
+	}
+	for (final Ingredient ingredient : recipe.ingredients()) {
+	    addWords(ingredient.name(), words);
+	}
+	final int id = usedIds.nextClearBit(0);
+	usedIds.set(id);
+	if (id == keysById.size()) {
+	    keysById.add(key);
+	} else {
+	    keysById.set(id, key);
+	}
+	idsByKey.put(key, id);
+	for (final String word : words) {
+	    idsByWord.computeIfAbsent(word, w -> {
+		final BitSet ids = new BitSet();
+		sortedIdsByWord.put(w, ids);
+		return ids;
+	    })
+		    .set(id);
+	}
+	wordsByKey.put(key, words);
+    }
+
+    public void remove(final K key) {
+	final Integer id = idsByKey.remove(key);
+	if (id == null) {
+	    return;
+	}
+	for (final String word : wordsByKey.remove(key)) {
+	    final BitSet ids = idsByWord.get(word);
+	    ids.clear(id);
+	    if (ids.isEmpty()) {
+		idsByWord.remove(word);
+		sortedIdsByWord.remove(word);
+	    }
+	}
+	keysById.set(id, null);
+	usedIds.clear(id);
+    }
+
+    // all recipes that contain a word starting with each word of the query
+    public Set<K> search(final String query) {
+	final List<String> queryWords = getCanonicalWords(query);
+	BitSet result = (BitSet) usedIds.clone();
+	for (final String queryWord : queryWords) {
+	    final BitSet matches = new BitSet();
+	    // all words in [queryWord, queryWord + max char) start with queryWord
+	    for (final BitSet ids : sortedIdsByWord.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false)
+		    .values()) {
+		matches.or(ids);
+	    }
+	    result.and(matches);
+	    if (result.isEmpty()) {
+		break;
+	    }
+	}
+	return new SearchResult(result);
+    }
+
+    // the words of a text in the form query words have, i.e., lower case and with
+    // replaced umlauts
+    static List<String> getCanonicalWords(final String text) {
+	final List<String> words = new ArrayList<>();
+	if (text != null) {
+	    addWordsOf(replaceUmlauts(normalize(text)), words);
+	}
+	return words;
+    }
+
+    private void addWords(final String text, final Collection<String> words) {
+	if (text == null) {
+	    return;
+	}
+	final String normalizedText = normalize(text);
+	addWordsOf(replaceUmlauts(normalizedText), words);
+	if (!isAscii(normalizedText)) {
+	    // "Käse" is found by "käse", "kaese" and "kase"
+	    addWordsOf(removeDiacriticalMarks(normalizedText), words);
+	}
+    }
+
+    private static void addWordsOf(final String normalizedText, final Collection<String> words) {
+	int start = -1;
+	for (int i = 0; i <= normalizedText.length(); i++) {
+	    final boolean partOfWord = i < normalizedText.length() && Character.isLetterOrDigit(normalizedText.charAt(i));
+	    if (partOfWord && start < 0) {
+		start = i;
+	    } else if (!partOfWord && start >= 0) {
+		words.add(normalizedText.substring(start, i));
+		start = -1;
+	    }
+	}
+    }
+
+    private static String normalize(final String text) {
+	final String lowerCaseText = text.toLowerCase(Locale.GERMAN);
+	return isAscii(lowerCaseText) ? lowerCaseText : Normalizer.normalize(lowerCaseText, Normalizer.Form.NFC);
+    }
+
+    private static String replaceUmlauts(final String text) {
+	if (isAscii(text)) {
+	    return text;
+	}
+	return removeDiacriticalMarks(text.replace("ä", "ae")
+		.replace("ö", "oe")
+		.replace("ü", "ue"));
+    }
+
+    private static String removeDiacriticalMarks(final String text) {
+	return DIACRITICAL_MARKS.matcher(Normalizer.normalize(text.replace("ß", "ss"), Normalizer.Form.NFD))
+		.replaceAll("");
+    }
+
+    private static boolean isAscii(final String text) {
+	for (int i = 0; i < text.length(); i++) {
+	    if (text.charAt(i) > 127) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    // a view of the found ids, so that no set of keys needs to be built per query
+    private final class SearchResult extends AbstractSet<K> {
+	private final BitSet ids;
+	private final int size;
+
+	private SearchResult(final BitSet ids) {
+	    this.ids = ids;
+	    this.size = ids.cardinality();
+	}
+
+	@Override
+	public boolean contains(final Object key) {
+	    final Integer id = idsByKey.get(key);
+	    return id != null && ids.get(id);
+	}
+
+	@Override
+	public int size() {
+	    return size;
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+	    return new Iterator<>() {
+		private int nextId = ids.nextSetBit(0);
+
+		@Override
+		public boolean hasNext() {
+		    return nextId >= 0;
+		}
+
+		@Override
+		public K next() {
+		    if (nextId < 0) {
+			throw new NoSuchElementException();
+		    }
+		    final K key = keysById.get(nextId);
+		    nextId = ids.nextSetBit(nextId + 1);
+		    return key;
+		}
+	    };
+	}
+    }
+}
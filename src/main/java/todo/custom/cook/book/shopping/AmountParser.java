@@ -0,0 +1,80 @@
+package todo.custom.cook.book.shopping;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Parses free-form amounts like "200 g", "1,5 kg", "1 1/2 EL", "½ TL" or "2-3
+ * Stück" into a quantity and a unit. Metric units are converted to g and ml, so
+ * that they can be summed up. Every distinct text is parsed only once per
+ * parser, the amounts of a cook book are interned and therefore repeat a lot. A
+ * parser belongs to a single shopping list, so the parsed texts don't outlive
+ * it.
+ */
+public final class AmountParser {
+    private static final Pattern AMOUNT = Pattern.compile("^\\s*(?:(\\d+)\\s+(\\d+)\\s*/\\s*(\\d+)|(\\d+)\\s*/\\s*(\\d+)|(\\d+(?:[.,]\\d+)?)\\s*([½¼¾⅓⅔])?(?:\\s*[-–]\\s*(\\d+(?:[.,]\\d+)?))?|([½¼¾⅓⅔]))\\s*(.*)$");
+    private static final Map<String, BaseUnit> BASE_UNITS = Map.of("g", new BaseUnit("g", 1), "kg", new BaseUnit("g", 1000), "mg", new BaseUnit("g", 0.001), "ml", new BaseUnit("ml", 1), "cl", new BaseUnit("ml", 10), "dl", new BaseUnit("ml", 100), "l", new BaseUnit("ml", 1000));
+
+    private final Map<String, Optional<Amount>> amounts = new HashMap<>();
+
+    public Optional<Amount> parse(final String amount) {
+	if (amount == null) {
+	    return Optional.empty();
+	}
+	return amounts.computeIfAbsent(amount, AmountParser::parseUncached);
+    }
+
+    private static Optional<Amount> parseUncached(final String amount) {
+	final Matcher matcher = AMOUNT.matcher(amount);
+	if (!matcher.matches()) {
+	    return Optional.empty();
+	}
+	final double quantity;
+	if (matcher.group(1) != null) {
+	    quantity = Double.parseDouble(matcher.group(1)) + fraction(matcher.group(2), matcher.group(3));
+	} else if (matcher.group(4) != null) {
+	    quantity = fraction(matcher.group(4), matcher.group(5));
+	} else if (matcher.group(6) != null) {
+	    // the upper bound of a range, to buy enough
+	    final String decimal = matcher.group(8) != null ? matcher.group(8) : matcher.group(6);
+	    quantity = Double.parseDouble(decimal.replace(',', '.')) + (matcher.group(8) == null && matcher.group(7) != null ? fraction(matcher.group(7)) : 0);
+	} else {
+	    quantity = fraction(matcher.group(9));
+	}
+	if (!Double.isFinite(quantity)) {
+	    return Optional.empty();
+	}
+	final String unit = matcher.group(10)
+		.strip();
+	final BaseUnit baseUnit = BASE_UNITS.get(unit.toLowerCase(Locale.ROOT));
+	if (baseUnit != null) {
+	    return Optional.of(new Amount(quantity * baseUnit.factor(), baseUnit.name()));
+	}
+	return Optional.of(new Amount(quantity, unit));
+    }
+
+    private static double fraction(final String numerator, final String denominator) {
+	return Double.parseDouble(numerator) / Double.parseDouble(denominator);
+    }
+
+    private static double fraction(final String vulgarFraction) {
+	return switch (vulgarFraction) {
+	case "½" -> 1.0 / 2;
+	case "¼" -> 1.0 / 4;
+	case "¾" -> 3.0 / 4;
+	case "⅓" -> 1.0 / 3;
+	case "⅔" -> 2.0 / 3;
+	default -> throw new IllegalStateException("Unknown fraction " + vulgarFraction);
+	};
+    }
+
+    public record Amount(double quantity, String unit) {
+    }
+
+    private record BaseUnit(String name, double factor) {
+    }
+}
@@ -0,0 +1,108 @@
+package todo.custom.cook.book.shopping;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Sums up the ingredients of any selection of recipes per ingredient name and
+ * unit. Every name and unit gets an id, so that the sums are a plain array.
+ * Amounts which can't be parsed are listed once per distinct text.
+ */
+public final class ShoppingList {
+    private static final Comparator<String> TEXT_ORDER = Comparator.nullsFirst(Comparator.<String>naturalOrder());
+
+    private final AmountParser amountParser = new AmountParser();
+    private final Map<Key, Integer> idsByKey = new HashMap<>();
+    private final List<Key> keysById = new ArrayList<>();
+    private double[] quantities = new double[64];
+
+    // the recipe as it is, for its own number of portions
+    public void add(final Recipe recipe) {
+	addScaled(recipe, 1);
+    }
+
+    public void add(final Recipe recipe, final double numberOfPortions) {
+	final double portionsOfRecipe = amountParser.parse(recipe.numberOfPortions())
+		.map(AmountParser.Amount::quantity)
+		.orElse(0.0);
+	// a recipe without a valid number of portions can't be scaled
+	addScaled(recipe, portionsOfRecipe > 0 ? numberOfPortions / portionsOfRecipe : 1);
+    }
+
+    public boolean isEmpty() {
+	return keysById.isEmpty();
+    }
+
+    // sorted by name and unit
+    public List<Item> getItems() {
+	final List<Item> items = new ArrayList<>(keysById.size());
+	for (int id = 0; id < keysById.size(); id++) {
+	    final Key key = keysById.get(id);
+	    items.add(new Item(key.name(), key.parsed() ? quantities[id] : Double.NaN, key.unit()));
+	}
+	items.sort(Comparator.comparing(Item::name, TEXT_ORDER)
+		.thenComparing(Item::unit, TEXT_ORDER));
+	return items;
+    }
+
+    private void addScaled(final Recipe recipe, final double factor) {
+	for (final Ingredient ingredient : recipe.ingredients()) {
+	    final Optional<AmountParser.Amount> amount = amountParser.parse(ingredient.amount());
+	    if (amount.isPresent()) {
+		final AmountParser.Amount parsedAmount = amount.get();
+		// the id first, as it might grow the array
+		final int id = getId(new Key(ingredient.name(), parsedAmount.unit(), true));
+		quantities[id] += parsedAmount.quantity() * factor;
+	    } else {
+		getId(new Key(ingredient.name(), Objects.toString(ingredient.amount(), ""), false));
+	    }
+	}
+    }
+
+    private int getId(final Key key) {
+	final Integer id = idsByKey.get(key);
+	if (id != null) {
+	    return id;
+	}
+	final int newId = keysById.size();
+	keysById.add(key);
+	idsByKey.put(key, newId);
+	if (newId == quantities.length) {
+	    quantities = Arrays.copyOf(quantities, newId * 2);
+	}
+	return newId;
+    }
+
+    // the quantity is NaN if the amount couldn't be parsed, the unit is the whole
+    // amount then
+    public record Item(String name, double quantity, String unit) {
+	public String amount() {
+	    if (Double.isNaN(quantity)) {
+		return unit;
+	    }
+	    double displayedQuantity = quantity;
+	    String displayedUnit = unit;
+	    if (quantity >= 1000 && (unit.equals("g") || unit.equals("ml"))) {
+		displayedQuantity = quantity / 1000;
+		displayedUnit = unit.equals("g") ? "kg" : "l";
+	    }
+	    final String formattedQuantity = new DecimalFormat("0.##", DecimalFormatSymbols.getInstance(Locale.GERMAN)).format(displayedQuantity);
+	    return displayedUnit.isEmpty() ? formattedQuantity : formattedQuantity + " " + displayedUnit;
+	}
+    }
+
+    private record Key(String name, String unit, boolean parsed) {
+    }
+}
@@ -0,0 +1,135 @@
+package todo.custom.cook.book.ui;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+/*
+ * Runs jobs one after another on a single background thread and reports their
+ * failures on the EDT with an error dialog, so that a failed write doesn't end
+ * the editor. A new job cancels the pending jobs it supersedes, so that
+ * repeated requests don't queue up. A superseded job which already runs is
+ * finished, because it might be writing a file, but its outcome is dropped.
+ */
+final class BackgroundJobs {
+    private final ThreadPoolExecutor executor;
+    private final Component dialogParent;
+    // only accessed on the EDT
+    private final List<Job> pendingJobs = new ArrayList<>();
+
+    BackgroundJobs(final String threadName, final Component dialogParent) {
+	this.dialogParent = dialogParent;
+	// the thread times out when idle, so pending jobs finish before the JVM exits
+	this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+	    return new Thread(runnable, threadName);
+	});
+	executor.allowCoreThreadTimeOut(true);
+    }
+
+    void submit(final Kind kind, final Task task) {
+	submit(kind, task, () -> {
+	});
+    }
+
+    // the failure handler is run on the EDT, e.g., to retry the job later
+    void submit(final Kind kind, final Task task, final Runnable failureHandler) {
+	submit(kind, task, () -> {
+	}, failureHandler);
+    }
+
+    // the success handler is run on the EDT as well, but not for a superseded job
+    void submit(final Kind kind, final Task task, final Runnable successHandler, final Runnable failureHandler) {
+	for (final Job pendingJob : pendingJobs) {
+	    if (kind.supersedes(pendingJob.kind)) {
+		pendingJob.cancel(false);
+	    }
+	}
+	final Job newJob = new Job(kind, task, successHandler, failureHandler);
+	pendingJobs.add(newJob);
+	executor.execute(newJob);
+    }
+
+    // reports a failed background task on the EDT instead of throwing there, which
+    // would only end up on the console
+    static void showFailure(final Component dialogParent, final String title, final ExecutionException e) {
+	e.getCause()
+		.printStackTrace();
+	final StringBuilder message = new StringBuilder();
+	for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+	    message.append(cause.getMessage() != null ? cause.getMessage() : cause.toString())
+		    .append(System.lineSeparator());
+	}
+	JOptionPane.showMessageDialog(dialogParent, message.toString(), title, JOptionPane.ERROR_MESSAGE);
+    }
+
+    @FunctionalInterface
+    interface Task {
+	void run() throws Exception;
+    }
+
+    enum Kind {
+	AUTOSAVE("Automatisches Speichern fehlgeschlagen"), SAVE("Speichern fehlgeschlagen"), EXPORT("Exportieren fehlgeschlagen");
+
+	private final String failureTitle;
+
+	Kind(final String failureTitle) {
+	    this.failureTitle = failureTitle;
+	}
+
+	private boolean supersedes(final Kind kind) {
+	    return switch (this) {
+	    // autosaves only write the changes since the previous autosave
+	    case AUTOSAVE -> false;
+	    // a save writes everything a pending autosave would write
+	    case SAVE -> kind == SAVE || kind == AUTOSAVE;
+	    case EXPORT -> kind == EXPORT;
+	    };
+	}
+    }
+
+    private final class Job extends FutureTask<Void> {
+	private final Kind kind;
+	private final Runnable successHandler;
+	private final Runnable failureHandler;
+
+	private Job(final Kind kind, final Task task, final Runnable successHandler, final Runnable failureHandler) {
+	    super(() -> {
+		task.run();
+		return null;
+	    });
+	    this.kind = kind;
+	    this.successHandler = successHandler;
+	    this.failureHandler = failureHandler;
+	}
+
+	@Override
+	protected void done() {
+	    SwingUtilities.invokeLater(() -> {
+		pendingJobs.remove(this);
+		if (isCancelled()) {
+		    return;
+		}
+		try {
+		    get();
+		    successHandler.run();
+		} catch (final InterruptedException e) {
+		    /*
+		     * not reachable, because done() is only called after the job is finished,
+		     * i.e., get() doesn't block
+		     */
+		} catch (final ExecutionException e) {
+		    failureHandler.run();
+		    showFailure(dialogParent, kind.failureTitle, e);
+		}
+	    });
+	}
+    }
+}
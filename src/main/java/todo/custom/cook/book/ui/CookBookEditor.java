@@ -5,72 +5,183 @@ import java.awt.Color;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Vector;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 import javax.imageio.ImageIO;
+import javax.swing.AbstractAction;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import todo.custom.cook.book.entity.CookBook;
 import todo.custom.cook.book.entity.Recipe;
 import todo.custom.cook.book.io.CookBookIO;
+import todo.custom.cook.book.io.CookBookStorage;
+import todo.custom.cook.book.io.CookBookWatcher;
+import todo.custom.cook.book.io.RecipeImport;
+import todo.custom.cook.book.io.ShardedCookBookIO;
+import todo.custom.cook.book.latex.ChapterPdfExport;
 import todo.custom.cook.book.latex.CookBookToLatex;
+import todo.custom.cook.book.latex.DocumentPdfExport;
+import todo.custom.cook.book.latex.ExportCache;
+import todo.custom.cook.book.latex.RecipeFragmentCache;
+import todo.custom.cook.book.metrics.Metrics;
+import todo.custom.cook.book.search.NearDuplicateDetector;
+import todo.custom.cook.book.search.RecipeSearchIndex;
+import todo.custom.cook.book.shopping.ShoppingList;
 import todo.custom.cook.book.util.Functions;
+import todo.custom.cook.book.util.Interner;
+import todo.custom.cook.book.util.SortedRecipeIndex;
 import todo.jlatex.GeneratePdf;
 
 public final class CookBookEditor {
+    private static final int NUMBER_OF_CACHED_RECIPE_EDITORS = 16;
+    private static final boolean EXPORT_CHAPTERS_SEPARATELY = Boolean.getBoolean("cookbook.export.chapters");
+    // writes the LaTeX of the document while it is rendered instead of building it in memory
+    private static final boolean EXPORT_STREAMING = Boolean.getBoolean("cookbook.export.streaming");
+    private static final int NUMBER_OF_LATEX_WORKERS = Integer.getInteger("cookbook.export.workers", Runtime.getRuntime()
+	    .availableProcessors());
+    private static final Path EXPORT_DIRECTORY = Path.of("./export");
+    private static final Path SHOPPING_LIST_EXPORT_DIRECTORY = EXPORT_DIRECTORY.resolve("shoppingList");
+    private static final int AUTOSAVE_DELAY_IN_MILLISECONDS = Integer.getInteger("cookbook.autosave.delay", 2000);
+
     private final JFrame frame = new JFrame("Eigenes Kochbuch!");
     private final Container contentPane = frame.getContentPane();
     private final JTextField nameInput = new JTextField();
     private final JTextField authorInput = new JTextField();
-    private final JComboBox<RecipeEditor> recipeSelector = new JComboBox<>();
+    private final JTextField searchInput = new JTextField();
+    private final JComboBox<RecipeHandle> recipeSelector = new JComboBox<>();
+    private final RecipeSearchIndex<RecipeHandle> recipeSearchIndex = new RecipeSearchIndex<>();
+    private final SortedRecipeIndex<RecipeHandle> recipeIndex = new SortedRecipeIndex<>();
+    // the ingredients typed into the editors of this cook book only
+    private final Interner interner = new Interner();
+    private final RecipeEditorCache recipeEditorCache = new RecipeEditorCache(NUMBER_OF_CACHED_RECIPE_EDITORS, interner);
+    private final RecipeFragmentCache recipeFragmentCache = new RecipeFragmentCache();
+    private final ExportCache exportCache = new ExportCache((EXPORT_CHAPTERS_SEPARATELY ? EXPORT_DIRECTORY : Path.of(".")).resolve("cookBook.pdf"));
     private final JButton addEmptyRecipeButton = new JButton("Neues Rezept");
     private final JButton saveButton = new JButton("Speichern");
     private final JButton exportToPdfButton = new JButton("PDF Exportieren");
+    private final JButton shoppingListButton = new JButton("Einkaufsliste");
+    private final JButton findDuplicatesButton = new JButton("Duplikate");
+    private final JButton importButton = new JButton("Importieren");
+    private final JProgressBar loadingProgressBar = new JProgressBar(0, 100);
     private final JPanel recipePanel = new JPanel(new BorderLayout());
+    private final Set<RecipeHandle> dirtyRecipeHandles = new LinkedHashSet<>();
+    private final Timer autosaveTimer = new Timer(AUTOSAVE_DELAY_IN_MILLISECONDS, event -> {
+	autosave();
+    });
+    private final BackgroundJobs storageJobs = new BackgroundJobs("cook-book-storage", frame);
+    private final BackgroundJobs exportJobs = new BackgroundJobs("cook-book-export", frame);
+    private CookBookStorage cookBookStorage = new CookBookIO();
+    private String storedName = "";
+    private String storedAuthor = "";
+    private CookBookWatcher cookBookWatcher;
 
     public CookBookEditor(final CookBook cookBook) {
 	super();
-	nameInput.setText(cookBook.name());
-	authorInput.setText(cookBook.author());
-	final List<Recipe> sortedRecipes = new ArrayList<>(cookBook.recipes());
-	sortedRecipes.sort((r1, r2) -> {
-	    return r1.name()
-		    .compareTo(r2.name());
-	});
-	for (final Recipe recipe : sortedRecipes) {
-	    recipeSelector.addItem(new RecipeEditor(recipe));
+	try (final Metrics.Timing timing = Metrics.time(Metrics.EDITOR)) {
+	    storedName = cookBook.name();
+	    storedAuthor = cookBook.author();
+	    nameInput.setText(cookBook.name());
+	    authorInput.setText(cookBook.author());
+	    for (final Recipe recipe : cookBook.recipes()) {
+		final RecipeHandle recipeHandle = new RecipeHandle(recipe, this::recipeChanged);
+		recipeIndex.update(recipeHandle, recipe);
+		recipeSearchIndex.update(recipeHandle, recipe);
+	    }
+	    recipeSelector.setModel(new DefaultComboBoxModel<>(new Vector<>(recipeIndex.getKeysByName())));
+	    setup();
+	    recipeSelector.setSelectedIndex(0);
 	}
-	setup();
-	recipeSelector.setSelectedIndex(0);
     }
 
     public CookBookEditor() {
-	setup();
+	try (final Metrics.Timing timing = Metrics.time(Metrics.EDITOR)) {
+	    setup();
+	}
+    }
+
+    public void load(final CookBookIO cookBookIO) {
+	this.cookBookStorage = cookBookIO;
+	new LoadCookBook(cookBookIO);
+    }
+
+    // recipes are only read once they are opened, saved or exported
+    public void load(final ShardedCookBookIO shardedCookBookIO) {
+	this.cookBookStorage = shardedCookBookIO;
+	new LoadManifest(shardedCookBookIO);
+    }
+
+    public void close() {
+	frame.dispose();
     }
 
     private void setup() {
-	recipePanel.setPreferredSize(new RecipeEditor("").getPanel()
+	recipePanel.setPreferredSize(new RecipeEditor("", interner).getPanel()
 		.getPreferredSize());
+	// prevents the combo box from measuring every recipe name
+	recipeSelector.setPrototypeDisplayValue(new RecipeHandle("X".repeat(40), recipeHandle -> {
+	}));
 	addComponents();
 	try {
 	    frame.setIconImage(ImageIO.read(getClass().getResourceAsStream("/CookBookIcon.png")));
 	} catch (final IOException e) {
 	    e.printStackTrace();
 	}
+	autosaveTimer.setRepeats(false);
 	frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+	frame.addWindowListener(new WindowAdapter() {
+	    @Override
+	    public void windowClosed(final WindowEvent e) {
+		if (autosaveTimer.isRunning()) {
+		    autosaveTimer.stop();
+		    autosave();
+		}
+		if (cookBookWatcher != null) {
+		    try {
+			cookBookWatcher.close();
+		    } catch (final IOException closeException) {
+			closeException.printStackTrace();
+		    }
+		}
+	    }
+	});
 	frame.pack();
 	frame.setLocationRelativeTo(null);
 	frame.setVisible(true);
@@ -80,15 +191,23 @@ public final class CookBookEditor {
 	contentPane.setLayout(new BoxLayout(contentPane, BoxLayout.Y_AXIS));
 	contentPane.add(UICustomization.getLeftLabelledComponent(nameInput, "Name:", 10));
 	contentPane.add(UICustomization.getLeftLabelledComponent(authorInput, "Autor:", 10));
+	contentPane.add(UICustomization.getLeftLabelledComponent(searchInput, "Suche:", 10));
 	contentPane.add(UICustomization.getLeftLabelledComponent(recipeSelector, "Rezepte:", 10));
 	final JPanel buttonRow = new JPanel(new FlowLayout(FlowLayout.CENTER));
 	buttonRow.add(addEmptyRecipeButton);
 	buttonRow.add(saveButton);
 	buttonRow.add(exportToPdfButton);
+	buttonRow.add(shoppingListButton);
+	buttonRow.add(findDuplicatesButton);
+	buttonRow.add(importButton);
+	buttonRow.add(loadingProgressBar);
+	loadingProgressBar.setStringPainted(true);
+	loadingProgressBar.setVisible(false);
 	contentPane.add(buttonRow);
 	setupButtons();
 	nameInput.setColumns(40);
 	authorInput.setColumns(20);
+	searchInput.setColumns(20);
 
 	final JPanel separator = new JPanel();
 	separator.setBackground(Color.LIGHT_GRAY);
@@ -98,116 +217,823 @@ public final class CookBookEditor {
     }
 
     private void setupButtons() {
+	// F12 shows the timings and counters of this session
+	frame.getRootPane()
+		.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+		.put(KeyStroke.getKeyStroke(KeyEvent.VK_F12, 0), "showMetrics");
+	frame.getRootPane()
+		.getActionMap()
+		.put("showMetrics", new AbstractAction() {
+		    private static final long serialVersionUID = 1L;
+
+		    @Override
+		    public void actionPerformed(final ActionEvent e) {
+			showMetrics();
+		    }
+		});
 	recipeSelector.addActionListener(click -> {
-	    final RecipeEditor selectedRecipeEditor = (RecipeEditor) recipeSelector.getSelectedItem();
-	    recipePanel.removeAll();
-	    recipePanel.add(selectedRecipeEditor.getPanel(), BorderLayout.CENTER);
-	    recipePanel.revalidate();
-	    recipePanel.repaint();
+	    showSelectedRecipe();
 	});
+	searchInput.getDocument()
+		.addDocumentListener(new DocumentListener() {
+		    @Override
+		    public void insertUpdate(final DocumentEvent e) {
+			applySearch();
+		    }
+
+		    @Override
+		    public void removeUpdate(final DocumentEvent e) {
+			applySearch();
+		    }
+
+		    @Override
+		    public void changedUpdate(final DocumentEvent e) {
+			applySearch();
+		    }
+		});
+	final DocumentListener metadataListener = new DocumentListener() {
+	    @Override
+	    public void insertUpdate(final DocumentEvent e) {
+		scheduleAutosave();
+	    }
+
+	    @Override
+	    public void removeUpdate(final DocumentEvent e) {
+		scheduleAutosave();
+	    }
+
+	    @Override
+	    public void changedUpdate(final DocumentEvent e) {
+		scheduleAutosave();
+	    }
+	};
+	nameInput.getDocument()
+		.addDocumentListener(metadataListener);
+	authorInput.getDocument()
+		.addDocumentListener(metadataListener);
 	addEmptyRecipeButton.addActionListener(click -> {
-	    final RecipeEditor recipeEditor = new RecipeEditor("Neues Rezept");
-	    recipeSelector.addItem(recipeEditor);
-	    recipeSelector.setSelectedItem(recipeEditor);
+	    // otherwise the new recipe might be filtered out
+	    searchInput.setText("");
+	    final RecipeHandle recipeHandle = new RecipeHandle("Neues Rezept", this::recipeChanged);
+	    recipeSelector.insertItemAt(recipeHandle, addRecipeHandle(recipeHandle));
+	    recipeSelector.setSelectedItem(recipeHandle);
 	});
 	saveButton.addActionListener(click -> {
-	    new SaveCookBook();
+	    save();
 	});
 	exportToPdfButton.addActionListener(click -> {
-	    new ExportPdf();
+	    exportPdf();
+	});
+	shoppingListButton.addActionListener(click -> {
+	    showShoppingList();
+	});
+	findDuplicatesButton.addActionListener(click -> {
+	    new FindDuplicates();
 	});
+	importButton.addActionListener(click -> {
+	    final JFileChooser directoryChooser = new JFileChooser(".");
+	    directoryChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+	    if (directoryChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+		new ImportRecipes(directoryChooser.getSelectedFile()
+			.toPath());
+	    }
+	});
+    }
+
+    private void showSelectedRecipe() {
+	final RecipeHandle selectedRecipeHandle = (RecipeHandle) recipeSelector.getSelectedItem();
+	recipePanel.removeAll();
+	if (selectedRecipeHandle != null) {
+	    recipePanel.add(recipeEditorCache.get(selectedRecipeHandle)
+		    .getPanel(), BorderLayout.CENTER);
+	}
+	recipePanel.revalidate();
+	recipePanel.repaint();
+    }
+
+    private void showMetrics() {
+	final JTextArea metricsOutput = new JTextArea(Metrics.dump());
+	metricsOutput.setEditable(false);
+	metricsOutput.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+	JOptionPane.showMessageDialog(frame, new JScrollPane(metricsOutput), "Diagnose", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // the recipes found by the current search are offered, the selected one is
+    // chosen already
+    private void showShoppingList() {
+	final List<RecipeHandle> offeredRecipeHandles = new ArrayList<>(recipeSelector.getItemCount());
+	for (int i = 0; i < recipeSelector.getItemCount(); i++) {
+	    offeredRecipeHandles.add(recipeSelector.getItemAt(i));
+	}
+	final ShoppingListSelectionModel selectionModel = new ShoppingListSelectionModel(offeredRecipeHandles);
+	selectionModel.select((RecipeHandle) recipeSelector.getSelectedItem());
+	final JTable selectionTable = new JTable(selectionModel);
+	selectionTable.setPreferredScrollableViewportSize(new Dimension(500, 300));
+	final String[] options = { "Anzeigen", "Als PDF exportieren", "Abbrechen" };
+	final int option = JOptionPane.showOptionDialog(frame, new JScrollPane(selectionTable), "Einkaufsliste", JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+	if (option != 0 && option != 1) {
+	    return;
+	}
+	// a number of portions which is still edited counts as well
+	if (selectionTable.isEditing()) {
+	    selectionTable.getCellEditor()
+		    .stopCellEditing();
+	}
+	final List<ShoppingListEntry> entries = new ArrayList<>();
+	for (final ShoppingListSelectionModel.Selection selection : selectionModel.getSelections()) {
+	    entries.add(new ShoppingListEntry(snapshotOrDraft(selection.recipeHandle()), selection.numberOfPortions()));
+	}
+	if (entries.isEmpty()) {
+	    JOptionPane.showMessageDialog(frame, "Bitte wähle mindestens ein Rezept aus", "Einkaufsliste", JOptionPane.ERROR_MESSAGE);
+	    return;
+	}
+	if (option == 0) {
+	    new CreateShoppingList(entries);
+	} else {
+	    exportShoppingList(entries);
+	}
+    }
+
+    // the chosen recipes with the shopping list as appendix, in a directory of
+    // its own so that the export of the cook book isn't replaced
+    private void exportShoppingList(final List<ShoppingListEntry> entries) {
+	final String name = nameInput.getText();
+	final String author = authorInput.getText();
+	exportJobs.submit(BackgroundJobs.Kind.EXPORT, () -> {
+	    final ShoppingList shoppingList = new ShoppingList();
+	    final Set<Recipe> recipes = new HashSet<>();
+	    for (final ShoppingListEntry entry : entries) {
+		recipes.add(entry.addTo(shoppingList));
+	    }
+	    final CookBook cookBook = new CookBook(name, author, recipes);
+	    // the cache of the cook book evicts the fragments of recipes it doesn't
+	    // contain, so a subset of the recipes would evict most of it
+	    new DocumentPdfExport(cookBook, SortedRecipeIndex.of(cookBook), shoppingList, new RecipeFragmentCache(), SHOPPING_LIST_EXPORT_DIRECTORY).export();
+	});
+    }
+
+    // a recipe of the shopping list, loaded only once the list is created
+    private record ShoppingListEntry(Supplier<Recipe> recipeSnapshot, Integer numberOfPortions) {
+	private Recipe addTo(final ShoppingList shoppingList) {
+	    final Recipe recipe = recipeSnapshot.get();
+	    if (numberOfPortions == null) {
+		shoppingList.add(recipe);
+	    } else {
+		shoppingList.add(recipe, numberOfPortions);
+	    }
+	    return recipe;
+	}
     }
 
     public Optional<CookBook> get() {
+	return snapshot().map(Supplier::get)
+		.map(CookBookSnapshot::cookBook);
+    }
+
+    // captures the content of all inputs on the EDT, recipes which weren't loaded
+    // yet are only loaded once the snapshot is materialized
+    private Optional<Supplier<CookBookSnapshot>> snapshot() {
 	final String name = nameInput.getText();
 	final String author = authorInput.getText();
-	if (Functions.emptyString(name) || Functions.emptyString(author) || recipeSelector.getItemCount() == 0) {
+	if (Functions.emptyString(name) || Functions.emptyString(author) || recipeIndex.size() == 0) {
 	    return Optional.empty();
 	}
-	final Set<Recipe> recipes = new HashSet<>();
-	for (final RecipeEditor recipeEditor : getRecipeEditors()) {
-	    final Optional<Recipe> recipe = recipeEditor.get();
-	    if (recipe.isPresent()) {
-		recipes.add(recipe.get());
+	final List<RecipeHandle> recipeHandles = recipeIndex.getKeysByName();
+	final List<Supplier<Recipe>> recipeSnapshots = new ArrayList<>(recipeHandles.size());
+	for (final RecipeHandle recipeHandle : recipeHandles) {
+	    final Optional<Supplier<Recipe>> recipeSnapshot = recipeHandle.snapshot();
+	    if (recipeSnapshot.isPresent()) {
+		recipeSnapshots.add(recipeSnapshot.get());
 	    } else {
 		return Optional.empty();
 	    }
 	}
-	return Optional.of(new CookBook(name, author, recipes));
+	final SortedRecipeIndex<RecipeHandle> capturedRecipeIndex = recipeIndex.copy();
+	return Optional.of(() -> {
+	    for (int i = 0; i < recipeSnapshots.size(); i++) {
+		final RecipeHandle recipeHandle = recipeHandles.get(i);
+		final Recipe recipe = recipeSnapshots.get(i)
+			.get();
+		// only recipes loaded on demand and those of open editors aren't indexed yet
+		if (recipe != capturedRecipeIndex.get(recipeHandle)) {
+		    capturedRecipeIndex.update(recipeHandle, recipe);
+		}
+	    }
+	    return new CookBookSnapshot(new CookBook(name, author, new HashSet<>(capturedRecipeIndex.getRecipes())), capturedRecipeIndex);
+	});
     }
 
-    private List<RecipeEditor> getRecipeEditors() {
-	final List<RecipeEditor> recipeEditors = new ArrayList<>(recipeSelector.getItemCount());
-	for (int i = 0; i < recipeSelector.getItemCount(); i++) {
-	    recipeEditors.add(recipeSelector.getItemAt(i));
+    // returns the index of the recipe in the order by name of the recipe index
+    private int addRecipeHandle(final RecipeHandle recipeHandle) {
+	recipeIndex.update(recipeHandle, recipeHandle.getDraft());
+	recipeSearchIndex.update(recipeHandle, recipeHandle.getDraft());
+	return recipeIndex.getIndexByName(recipeHandle);
+    }
+
+    // adds many recipes at once, the selector is updated by the caller
+    private void addRecipeHandles(final List<RecipeHandle> addedRecipeHandles) {
+	for (final RecipeHandle recipeHandle : addedRecipeHandles) {
+	    recipeIndex.update(recipeHandle, recipeHandle.getDraft());
+	    recipeSearchIndex.update(recipeHandle, recipeHandle.getDraft());
+	}
+    }
+
+    private void removeRecipeHandle(final RecipeHandle recipeHandle) {
+	recipeIndex.remove(recipeHandle);
+	recipeSearchIndex.remove(recipeHandle);
+	recipeEditorCache.remove(recipeHandle);
+	dirtyRecipeHandles.remove(recipeHandle);
+	recipeSelector.removeItem(recipeHandle);
+    }
+
+    private void watch(final CookBookIO cookBookIO, final CookBook cookBook) {
+	try {
+	    cookBookWatcher = new CookBookWatcher(cookBookIO, cookBook, changes -> {
+		SwingUtilities.invokeLater(() -> {
+		    applyExternalChanges(changes);
+		});
+	    });
+	} catch (final IOException e) {
+	    // the cook book can still be edited, it's just not reloaded
+	    e.printStackTrace();
+	}
+    }
+
+    // only recipes and metadata without unsaved edits are replaced, so that no edits
+    // get lost
+    private void applyExternalChanges(final CookBookWatcher.Changes changes) {
+	final Map<String, RecipeHandle> recipeHandlesByStoredName = new HashMap<>();
+	for (final RecipeHandle recipeHandle : recipeIndex.getKeysByName()) {
+	    final Recipe storedRecipe = recipeHandle.getStoredRecipe();
+	    if (storedRecipe != null) {
+		recipeHandlesByStoredName.put(storedRecipe.name(), recipeHandle);
+	    }
+	}
+	final boolean searchActive = !Functions.emptyString(searchInput.getText());
+	final RecipeHandle selectedRecipeHandle = (RecipeHandle) recipeSelector.getSelectedItem();
+	for (final Recipe changedRecipe : changes.changedRecipes()) {
+	    final RecipeHandle recipeHandle = recipeHandlesByStoredName.get(changedRecipe.name());
+	    if (recipeHandle == null) {
+		final RecipeHandle addedRecipeHandle = new RecipeHandle(changedRecipe, this::recipeChanged);
+		final int index = addRecipeHandle(addedRecipeHandle);
+		if (!searchActive) {
+		    recipeSelector.insertItemAt(addedRecipeHandle, index);
+		}
+	    } else if (!dirtyRecipeHandles.contains(recipeHandle) && !changedRecipe.equals(recipeHandle.getStoredRecipe())) {
+		recipeHandle.replace(changedRecipe);
+		recipeIndex.update(recipeHandle, changedRecipe);
+		recipeSearchIndex.update(recipeHandle, changedRecipe);
+		if (recipeHandle == selectedRecipeHandle) {
+		    showSelectedRecipe();
+		}
+	    }
+	}
+	for (final String removedRecipeName : changes.removedRecipeNames()) {
+	    final RecipeHandle recipeHandle = recipeHandlesByStoredName.get(removedRecipeName);
+	    if (recipeHandle != null && !dirtyRecipeHandles.contains(recipeHandle)) {
+		removeRecipeHandle(recipeHandle);
+	    }
+	}
+	if (searchActive) {
+	    applySearch();
+	}
+	// the stored values are updated first, so that the autosave triggered by the
+	// inputs doesn't write anything
+	if (Objects.equals(nameInput.getText(), storedName) && changes.name() != null) {
+	    storedName = changes.name();
+	    nameInput.setText(changes.name());
+	}
+	if (Objects.equals(authorInput.getText(), storedAuthor) && changes.author() != null) {
+	    storedAuthor = changes.author();
+	    authorInput.setText(changes.author());
+	}
+    }
+
+    private void recipeChanged(final RecipeHandle recipeHandle) {
+	final Recipe draft = recipeHandle.getDraft();
+	recipeIndex.update(recipeHandle, draft);
+	recipeSearchIndex.update(recipeHandle, draft);
+	dirtyRecipeHandles.add(recipeHandle);
+	scheduleAutosave();
+    }
+
+    private void scheduleAutosave() {
+	if (AUTOSAVE_DELAY_IN_MILLISECONDS > 0) {
+	    autosaveTimer.restart();
+	}
+    }
+
+    // collects the dirty recipes on the EDT and only writes those, which differ
+    // from their stored version, in the background
+    private void autosave() {
+	if (!saveButton.isEnabled()) {
+	    // the cook book isn't loaded (yet), the dirty recipes stay dirty
+	    return;
+	}
+	final List<Recipe> changedRecipes = new ArrayList<>();
+	final List<String> deletedRecipeNames = new ArrayList<>();
+	final List<RecipeWrite> recipeWrites = new ArrayList<>();
+	final Iterator<RecipeHandle> dirtyRecipeHandleIterator = dirtyRecipeHandles.iterator();
+	while (dirtyRecipeHandleIterator.hasNext()) {
+	    final RecipeHandle recipeHandle = dirtyRecipeHandleIterator.next();
+	    final Optional<Recipe> recipe = recipeHandle.get();
+	    if (recipe.isEmpty()) {
+		// stays dirty until its content is valid
+		continue;
+	    }
+	    dirtyRecipeHandleIterator.remove();
+	    final Recipe storedRecipe = recipeHandle.getStoredRecipe();
+	    if (recipe.get()
+		    .equals(storedRecipe)) {
+		continue;
+	    }
+	    if (storedRecipe != null && !storedRecipe.name()
+		    .equals(recipe.get()
+			    .name())) {
+		deletedRecipeNames.add(storedRecipe.name());
+	    }
+	    changedRecipes.add(recipe.get());
+	    recipeWrites.add(new RecipeWrite(recipeHandle, recipe.get(), storedRecipe));
+	    recipeHandle.setStoredRecipe(recipe.get());
+	}
+	final String name = nameInput.getText();
+	final String author = authorInput.getText();
+	// like save(), an empty name or author isn't stored, it's written once it's valid
+	final boolean metadataChanged = !Functions.emptyString(name) && !Functions.emptyString(author) && (!Objects.equals(name, storedName) || !Objects.equals(author, storedAuthor));
+	final String previousStoredName = storedName;
+	final String previousStoredAuthor = storedAuthor;
+	if (metadataChanged) {
+	    storedName = name;
+	    storedAuthor = author;
+	}
+	if (changedRecipes.isEmpty() && deletedRecipeNames.isEmpty() && !metadataChanged) {
+	    return;
+	}
+	final CookBookStorage targetCookBookStorage = cookBookStorage;
+	storageJobs.submit(BackgroundJobs.Kind.AUTOSAVE, () -> {
+	    // renamed recipes are deleted first, so that swapped names don't get lost
+	    for (final String deletedRecipeName : deletedRecipeNames) {
+		targetCookBookStorage.deleteRecipe(deletedRecipeName);
+	    }
+	    if (!changedRecipes.isEmpty()) {
+		targetCookBookStorage.storeRecipes(changedRecipes);
+	    }
+	    if (metadataChanged) {
+		targetCookBookStorage.storeMetadata(name, author);
+	    }
+	}, () -> {
+	    // marks everything as unsaved again, so that the next autosave retries it
+	    final Set<RecipeHandle> currentRecipeHandles = new HashSet<>(recipeIndex.getKeysByName());
+	    for (final RecipeWrite recipeWrite : recipeWrites) {
+		final RecipeHandle recipeHandle = recipeWrite.recipeHandle();
+		if (recipeHandle.getStoredRecipe() == recipeWrite.writtenRecipe()) {
+		    recipeHandle.setStoredRecipe(recipeWrite.previousStoredRecipe());
+		}
+		if (currentRecipeHandles.contains(recipeHandle)) {
+		    dirtyRecipeHandles.add(recipeHandle);
+		}
+	    }
+	    if (Objects.equals(storedName, name) && Objects.equals(storedAuthor, author)) {
+		storedName = previousStoredName;
+		storedAuthor = previousStoredAuthor;
+	    }
+	});
+    }
+
+    // the stored recipe of a handle before a write, to undo it if the write fails
+    private record RecipeWrite(RecipeHandle recipeHandle, Recipe writtenRecipe, Recipe previousStoredRecipe) {
+    }
+
+    private void save() {
+	final Optional<Supplier<CookBookSnapshot>> cookBookSnapshot = snapshot();
+	if (cookBookSnapshot.isEmpty()) {
+	    JOptionPane.showMessageDialog(frame, "Bitte füge jedem Feld einen erlaubten Wert hinzu und probiere erneut", "Speichern nicht möglich", JOptionPane.ERROR_MESSAGE);
+	    return;
+	}
+	// recipes which weren't loaded yet can't have changed
+	final List<RecipeWrite> recipeWrites = new ArrayList<>();
+	for (final RecipeHandle recipeHandle : recipeIndex.getKeysByName()) {
+	    if (recipeHandle.isLoaded()) {
+		recipeWrites.add(new RecipeWrite(recipeHandle, recipeHandle.get()
+			.orElseThrow(), recipeHandle.getStoredRecipe()));
+	    }
+	}
+	final String name = nameInput.getText();
+	final String author = authorInput.getText();
+	final CookBookStorage targetCookBookStorage = cookBookStorage;
+	storageJobs.submit(BackgroundJobs.Kind.SAVE, () -> {
+	    targetCookBookStorage.store(cookBookSnapshot.get()
+		    .get()
+		    .cookBook());
+	}, () -> {
+	    // everything is stored now, so autosaves don't write it again, recipes
+	    // edited during the save stay dirty
+	    for (final RecipeWrite recipeWrite : recipeWrites) {
+		final RecipeHandle recipeHandle = recipeWrite.recipeHandle();
+		recipeHandle.setStoredRecipe(recipeWrite.writtenRecipe());
+		if (recipeHandle.get()
+			.equals(Optional.of(recipeWrite.writtenRecipe()))) {
+		    dirtyRecipeHandles.remove(recipeHandle);
+		}
+	    }
+	    storedName = name;
+	    storedAuthor = author;
+	}, () -> {
+	});
+    }
+
+    private void exportPdf() {
+	final Optional<Supplier<CookBookSnapshot>> cookBookSnapshot = snapshot();
+	if (cookBookSnapshot.isEmpty()) {
+	    JOptionPane.showMessageDialog(frame, "Bitte füge jedem Feld einen erlaubten Wert hinzu und probiere erneut", "Exportieren nicht möglich", JOptionPane.ERROR_MESSAGE);
+	    return;
+	}
+	exportJobs.submit(BackgroundJobs.Kind.EXPORT, () -> {
+	    final CookBookSnapshot capturedCookBookSnapshot = cookBookSnapshot.get()
+		    .get();
+	    final CookBook capturedCookBook = capturedCookBookSnapshot.cookBook();
+	    final String contentHash = exportCache.hash(capturedCookBook, EXPORT_CHAPTERS_SEPARATELY ? "chapters" : "document");
+	    if (exportCache.isUpToDate(contentHash)) {
+		return;
+	    }
+	    if (EXPORT_CHAPTERS_SEPARATELY) {
+		new ChapterPdfExport(capturedCookBook, capturedCookBookSnapshot.recipeIndex(), recipeFragmentCache, EXPORT_DIRECTORY, NUMBER_OF_LATEX_WORKERS).export();
+	    } else if (EXPORT_STREAMING) {
+		new DocumentPdfExport(capturedCookBook, capturedCookBookSnapshot.recipeIndex(), recipeFragmentCache, Path.of(".")).export();
+	    } else {
+		final CookBookToLatex cookBookToLatex = new CookBookToLatex(capturedCookBook, capturedCookBookSnapshot.recipeIndex(), recipeFragmentCache);
+		try (final Metrics.Timing timing = Metrics.time(Metrics.PDF)) {
+		    new GeneratePdf(cookBookToLatex.get());
+		}
+	    }
+	    exportCache.update(contentHash);
+	});
+    }
+
+    private void applySearch() {
+	final Set<RecipeHandle> foundRecipeHandles = recipeSearchIndex.search(searchInput.getText());
+	final Vector<RecipeHandle> visibleRecipeHandles = new Vector<>(foundRecipeHandles.size());
+	for (final RecipeHandle recipeHandle : recipeIndex.getKeysByName()) {
+	    if (foundRecipeHandles.contains(recipeHandle)) {
+		visibleRecipeHandles.add(recipeHandle);
+	    }
+	}
+	final Object selectedRecipeHandle = recipeSelector.getSelectedItem();
+	recipeSelector.setModel(new DefaultComboBoxModel<>(visibleRecipeHandles));
+	if (foundRecipeHandles.contains(selectedRecipeHandle)) {
+	    recipeSelector.setSelectedItem(selectedRecipeHandle);
+	} else {
+	    recipeSelector.setSelectedItem(visibleRecipeHandles.isEmpty() ? null : visibleRecipeHandles.get(0));
+	}
+    }
+
+    // captures the content of all recipes on the EDT, a recipe with invalid content
+    // is captured as draft
+    private List<Supplier<Recipe>> getRecipeSnapshots() {
+	final List<Supplier<Recipe>> recipeSnapshots = new ArrayList<>(recipeIndex.size());
+	for (final RecipeHandle recipeHandle : recipeIndex.getKeysByName()) {
+	    recipeSnapshots.add(snapshotOrDraft(recipeHandle));
+	}
+	return recipeSnapshots;
+    }
+
+    private static Supplier<Recipe> snapshotOrDraft(final RecipeHandle recipeHandle) {
+	return recipeHandle.snapshot()
+		.orElseGet(() -> {
+		    final Recipe draft = recipeHandle.getDraft();
+		    return () -> {
+			return draft;
+		    };
+		});
+    }
+
+    private static List<Recipe> getRecipes(final List<Supplier<Recipe>> recipeSnapshots) {
+	final List<Recipe> recipes = new ArrayList<>(recipeSnapshots.size());
+	for (final Supplier<Recipe> recipeSnapshot : recipeSnapshots) {
+	    recipes.add(recipeSnapshot.get());
 	}
-	return recipeEditors;
+	return recipes;
     }
 
-    private final class SaveCookBook extends SwingWorker<Boolean, Void> {
-	private SaveCookBook() {
+    // the index orders the recipes of the cook book for the export
+    private record CookBookSnapshot(CookBook cookBook, SortedRecipeIndex<RecipeHandle> recipeIndex) {
+    }
+
+    private final class LoadCookBook extends SwingWorker<CookBook, Recipe> {
+	private final CookBookIO cookBookIO;
+
+	private LoadCookBook(final CookBookIO cookBookIO) {
+	    this.cookBookIO = cookBookIO;
+	    // storing a partially loaded cook book would drop the remaining recipes
+	    saveButton.setEnabled(false);
+	    exportToPdfButton.setEnabled(false);
+	    // the import compares against the recipes, so it waits for all of them
+	    importButton.setEnabled(false);
+	    loadingProgressBar.setVisible(true);
+	    addPropertyChangeListener(event -> {
+		if (event.getPropertyName()
+			.equals("progress")) {
+		    loadingProgressBar.setValue((Integer) event.getNewValue());
+		}
+	    });
 	    execute();
 	}
 
 	@Override
-	public Boolean doInBackground() throws Exception {
-	    saveButton.setEnabled(false);
-	    final CookBookIO cookBookIO = new CookBookIO();
-	    final Optional<CookBook> cookBook = CookBookEditor.this.get();
-	    if (cookBook.isPresent()) {
-		cookBookIO.store(cookBook.get());
+	public CookBook doInBackground() throws Exception {
+	    return cookBookIO.get(this::publish, this::setProgress);
+	}
+
+	@Override
+	public void process(final List<Recipe> recipes) {
+	    final boolean searchActive = !Functions.emptyString(searchInput.getText());
+	    for (final Recipe recipe : recipes) {
+		final RecipeHandle recipeHandle = new RecipeHandle(recipe, CookBookEditor.this::recipeChanged);
+		final int index = addRecipeHandle(recipeHandle);
+		if (!searchActive) {
+		    recipeSelector.insertItemAt(recipeHandle, index);
+		}
+	    }
+	    if (searchActive) {
+		applySearch();
+	    } else if (recipeSelector.getSelectedIndex() < 0 && recipeSelector.getItemCount() > 0) {
+		recipeSelector.setSelectedIndex(0);
 	    }
-	    return cookBook.isPresent();
 	}
 
 	@Override
 	public void done() {
 	    try {
-		final boolean saveSuccessful = get();
-		if (!saveSuccessful) {
-		    JOptionPane.showMessageDialog(frame, "Bitte füge jedem Feld einen erlaubten Wert hinzu und probiere erneut", "Speichern nicht möglich", JOptionPane.ERROR_MESSAGE);
+		final CookBook cookBook = get();
+		storedName = cookBook.name();
+		storedAuthor = cookBook.author();
+		nameInput.setText(cookBook.name());
+		authorInput.setText(cookBook.author());
+		watch(cookBookIO, cookBook);
+		saveButton.setEnabled(true);
+		exportToPdfButton.setEnabled(true);
+		importButton.setEnabled(true);
+	    } catch (final InterruptedException e) {
+		/*
+		 * not reachable, because done() is only called after doInBackground is
+		 * finished, i.e., get() of SwingWorker doesn't block
+		 */
+	    } catch (final ExecutionException e) {
+		// saving stays disabled, so that the unreadable cook book isn't replaced by
+		// the recipes read so far
+		BackgroundJobs.showFailure(frame, "Laden fehlgeschlagen", e);
+	    } finally {
+		loadingProgressBar.setVisible(false);
+	    }
+	}
+    }
+
+    // compares all recipes of the cook book, including the ones hidden by the
+    // search, in the background
+    private final class FindDuplicates extends SwingWorker<List<NearDuplicateDetector.DuplicateGroup>, Void> {
+	private final List<Supplier<Recipe>> recipeSnapshots = getRecipeSnapshots();
+
+	private FindDuplicates() {
+	    findDuplicatesButton.setEnabled(false);
+	    execute();
+	}
+
+	@Override
+	public List<NearDuplicateDetector.DuplicateGroup> doInBackground() throws Exception {
+	    return new NearDuplicateDetector().find(getRecipes(recipeSnapshots));
+	}
+
+	@Override
+	public void done() {
+	    try {
+		final List<NearDuplicateDetector.DuplicateGroup> duplicateGroups = get();
+		final StringBuilder duplicatesText = new StringBuilder();
+		for (final NearDuplicateDetector.DuplicateGroup duplicateGroup : duplicateGroups) {
+		    duplicatesText.append(String.format("Ähnlichkeit %d %%%n", Math.round(duplicateGroup.similarity() * 100)));
+		    for (final Recipe recipe : duplicateGroup.recipes()) {
+			duplicatesText.append(String.format("    %s (%s)%n", recipe.name(), recipe.group()));
+		    }
+		    duplicatesText.append(System.lineSeparator());
+		}
+		if (duplicateGroups.isEmpty()) {
+		    duplicatesText.append("Keine ähnlichen Rezepte gefunden");
 		}
-	    } catch (final InterruptedException | ExecutionException e) {
+		final JTextArea duplicatesOutput = new JTextArea(duplicatesText.toString(), 20, 50);
+		duplicatesOutput.setEditable(false);
+		duplicatesOutput.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		JOptionPane.showMessageDialog(frame, new JScrollPane(duplicatesOutput), "Duplikate", JOptionPane.INFORMATION_MESSAGE);
+	    } catch (final InterruptedException e) {
 		/*
 		 * not reachable, because done() is only called after doInBackground is
 		 * finished, i.e., get() of SwingWorker doesn't block
 		 */
+	    } catch (final ExecutionException e) {
+		BackgroundJobs.showFailure(frame, "Duplikatsuche fehlgeschlagen", e);
 	    } finally {
-		saveButton.setEnabled(true);
+		findDuplicatesButton.setEnabled(true);
 	    }
 	}
     }
 
-    private final class ExportPdf extends SwingWorker<Boolean, Void> {
-	private ExportPdf() {
+    // loads the chosen recipes in the background, recipes of a sharded cook book
+    // might not be loaded yet
+    private final class CreateShoppingList extends SwingWorker<ShoppingList, Void> {
+	private final List<ShoppingListEntry> entries;
+
+	private CreateShoppingList(final List<ShoppingListEntry> entries) {
+	    this.entries = entries;
+	    shoppingListButton.setEnabled(false);
 	    execute();
 	}
 
 	@Override
-	public Boolean doInBackground() throws Exception {
-	    exportToPdfButton.setEnabled(false);
-	    final Optional<CookBook> cookBook = CookBookEditor.this.get();
-	    if (cookBook.isPresent()) {
-		final CookBookToLatex cookBookToLatex = new CookBookToLatex(cookBook.get());
-		new GeneratePdf(cookBookToLatex.get());
+	public ShoppingList doInBackground() throws Exception {
+	    final ShoppingList shoppingList = new ShoppingList();
+	    for (final ShoppingListEntry entry : entries) {
+		entry.addTo(shoppingList);
 	    }
-	    return cookBook.isPresent();
+	    return shoppingList;
 	}
 
 	@Override
 	public void done() {
 	    try {
-		final boolean exportSuccessful = get();
-		if (!exportSuccessful) {
-		    JOptionPane.showMessageDialog(frame, "Bitte füge jedem Feld einen erlaubten Wert hinzu und probiere erneut", "Exportieren nicht möglich", JOptionPane.ERROR_MESSAGE);
+		final ShoppingList shoppingList = get();
+		final StringBuilder shoppingListText = new StringBuilder();
+		for (final ShoppingList.Item item : shoppingList.getItems()) {
+		    shoppingListText.append(String.format("%12s  %s%n", item.amount(), item.name()));
 		}
-	    } catch (final InterruptedException | ExecutionException e) {
+		final JTextArea shoppingListOutput = new JTextArea(shoppingListText.toString(), 20, 50);
+		shoppingListOutput.setEditable(false);
+		shoppingListOutput.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		JOptionPane.showMessageDialog(frame, new JScrollPane(shoppingListOutput), "Einkaufsliste", JOptionPane.INFORMATION_MESSAGE);
+	    } catch (final InterruptedException e) {
 		/*
 		 * not reachable, because done() is only called after doInBackground is
 		 * finished, i.e., get() of SwingWorker doesn't block
 		 */
+	    } catch (final ExecutionException e) {
+		BackgroundJobs.showFailure(frame, "Einkaufsliste fehlgeschlagen", e);
 	    } finally {
+		shoppingListButton.setEnabled(true);
+	    }
+	}
+    }
+
+    // the imported recipes are added in one batch and stored by a single autosave
+    private final class ImportRecipes extends SwingWorker<RecipeImport.Result, Void> {
+	private final Path directory;
+	private final List<Supplier<Recipe>> recipeSnapshots = getRecipeSnapshots();
+
+	private ImportRecipes(final Path directory) {
+	    this.directory = directory;
+	    importButton.setEnabled(false);
+	    execute();
+	}
+
+	@Override
+	public RecipeImport.Result doInBackground() throws Exception {
+	    return new RecipeImport(directory).read(getRecipes(recipeSnapshots));
+	}
+
+	@Override
+	public void done() {
+	    try {
+		final RecipeImport.Result result = get();
+		final List<RecipeHandle> importedRecipeHandles = new ArrayList<>(result.recipes()
+			.size());
+		for (final Recipe recipe : result.recipes()) {
+		    final RecipeHandle recipeHandle = new RecipeHandle(recipe, CookBookEditor.this::recipeChanged);
+		    // not stored yet
+		    recipeHandle.setStoredRecipe(null);
+		    importedRecipeHandles.add(recipeHandle);
+		}
+		addRecipeHandles(importedRecipeHandles);
+		dirtyRecipeHandles.addAll(importedRecipeHandles);
+		applySearch();
+		if (!importedRecipeHandles.isEmpty()) {
+		    autosave();
+		}
+		final StringBuilder summary = new StringBuilder();
+		summary.append(String.format("%d Rezepte importiert%n%d bereits vorhandene Rezepte übersprungen%n%d unvollständige Rezepte übersprungen", result.recipes()
+			.size(), result.numberOfDuplicates(), result.numberOfInvalidRecipes()));
+		for (final Path failedFile : result.failedFiles()) {
+		    summary.append(String.format("%nNicht lesbar: %s", failedFile));
+		}
+		JOptionPane.showMessageDialog(frame, summary.toString(), "Importieren", JOptionPane.INFORMATION_MESSAGE);
+	    } catch (final InterruptedException e) {
+		/*
+		 * not reachable, because done() is only called after doInBackground is
+		 * finished, i.e., get() of SwingWorker doesn't block
+		 */
+	    } catch (final ExecutionException e) {
+		BackgroundJobs.showFailure(frame, "Importieren fehlgeschlagen", e);
+	    } finally {
+		importButton.setEnabled(true);
+	    }
+	}
+    }
+
+    // the previews of a sharded cook book only contain name and group, so the
+    // steps and ingredients of every recipe are read for the search in the
+    // background, the recipes themselves stay unloaded
+    private final class IndexRecipes extends SwingWorker<Void, IndexedRecipe> {
+	private final List<RecipeHandle> unloadedRecipeHandles = new ArrayList<>();
+	private final List<Supplier<Recipe>> recipeLoaders = new ArrayList<>();
+
+	private IndexRecipes() {
+	    for (final RecipeHandle recipeHandle : recipeIndex.getKeysByName()) {
+		if (!recipeHandle.isLoaded()) {
+		    unloadedRecipeHandles.add(recipeHandle);
+		    recipeLoaders.add(recipeHandle.snapshot()
+			    .orElseThrow());
+		}
+	    }
+	    execute();
+	}
+
+	@Override
+	public Void doInBackground() throws Exception {
+	    for (int i = 0; i < unloadedRecipeHandles.size(); i++) {
+		try {
+		    publish(new IndexedRecipe(unloadedRecipeHandles.get(i), recipeLoaders.get(i)
+			    .get()));
+		} catch (final IllegalStateException e) {
+		    // the recipe is only found by name and group, opening it reports the failure
+		    e.printStackTrace();
+		}
+	    }
+	    return null;
+	}
+
+	@Override
+	public void process(final List<IndexedRecipe> indexedRecipes) {
+	    for (final IndexedRecipe indexedRecipe : indexedRecipes) {
+		// a recipe loaded in the meantime is already indexed with its current content
+		if (!indexedRecipe.recipeHandle()
+			.isLoaded()) {
+		    recipeSearchIndex.update(indexedRecipe.recipeHandle(), indexedRecipe.recipe());
+		}
+	    }
+	}
+
+	@Override
+	public void done() {
+	    if (!Functions.emptyString(searchInput.getText())) {
+		applySearch();
+	    }
+	}
+    }
+
+    private record IndexedRecipe(RecipeHandle recipeHandle, Recipe recipe) {
+    }
+
+    private final class LoadManifest extends SwingWorker<ShardedCookBookIO.Manifest, Void> {
+	private final ShardedCookBookIO shardedCookBookIO;
+
+	private LoadManifest(final ShardedCookBookIO shardedCookBookIO) {
+	    this.shardedCookBookIO = shardedCookBookIO;
+	    saveButton.setEnabled(false);
+	    exportToPdfButton.setEnabled(false);
+	    importButton.setEnabled(false);
+	    execute();
+	}
+
+	@Override
+	public ShardedCookBookIO.Manifest doInBackground() throws Exception {
+	    return shardedCookBookIO.getManifest();
+	}
+
+	@Override
+	public void done() {
+	    try {
+		final ShardedCookBookIO.Manifest manifest = get();
+		storedName = manifest.name();
+		storedAuthor = manifest.author();
+		nameInput.setText(manifest.name());
+		authorInput.setText(manifest.author());
+		final List<RecipeHandle> loadedRecipeHandles = new ArrayList<>(manifest.recipes()
+			.size());
+		for (final ShardedCookBookIO.RecipeEntry recipeEntry : manifest.recipes()) {
+		    final Recipe preview = new Recipe(recipeEntry.name(), List.of(), "", recipeEntry.group(), "", Set.of());
+		    loadedRecipeHandles.add(new RecipeHandle(preview, () -> {
+			return shardedCookBookIO.getRecipe(recipeEntry);
+		    }, CookBookEditor.this::recipeChanged));
+		}
+		addRecipeHandles(loadedRecipeHandles);
+		applySearch();
+		new IndexRecipes();
+		saveButton.setEnabled(true);
 		exportToPdfButton.setEnabled(true);
+		importButton.setEnabled(true);
+	    } catch (final InterruptedException e) {
+		/*
+		 * not reachable, because done() is only called after doInBackground is
+		 * finished, i.e., get() of SwingWorker doesn't block
+		 */
+	    } catch (final ExecutionException e) {
+		// saving stays disabled, so that the unreadable manifest isn't replaced
+		BackgroundJobs.showFailure(frame, "Laden fehlgeschlagen", e);
 	    }
 	}
     }
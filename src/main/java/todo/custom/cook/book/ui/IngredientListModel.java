@@ -0,0 +1,77 @@
+package todo.custom.cook.book.ui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.AbstractListModel;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.util.SortedRecipeIndex;
+
+/*
+ * Ingredients sorted like in the exported cook book. The list only asks for the
+ * visible rows, so the number of ingredients doesn't affect the layout.
+ */
+final class IngredientListModel extends AbstractListModel<Ingredient> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Ingredient> sortedIngredients = new ArrayList<>();
+    private final Set<Ingredient> ingredients = new HashSet<>();
+    private Set<Ingredient> ingredientsSnapshot;
+
+    // replaces all ingredients with a single event
+    void setAll(final Collection<Ingredient> newIngredients) {
+	final int oldSize = sortedIngredients.size();
+	ingredientsSnapshot = null;
+	ingredients.clear();
+	ingredients.addAll(newIngredients);
+	sortedIngredients.clear();
+	sortedIngredients.addAll(ingredients);
+	sortedIngredients.sort(SortedRecipeIndex.INGREDIENT_ORDER);
+	final int maximumSize = Math.max(oldSize, sortedIngredients.size());
+	if (maximumSize > 0) {
+	    fireContentsChanged(this, 0, maximumSize - 1);
+	}
+    }
+
+    boolean add(final Ingredient ingredient) {
+	if (!ingredients.add(ingredient)) {
+	    return false;
+	}
+	ingredientsSnapshot = null;
+	final int searchResult = Collections.binarySearch(sortedIngredients, ingredient, SortedRecipeIndex.INGREDIENT_ORDER);
+	final int index = searchResult < 0 ? -searchResult - 1 : searchResult;
+	sortedIngredients.add(index, ingredient);
+	fireIntervalAdded(this, index, index);
+	return true;
+    }
+
+    void remove(final int index) {
+	ingredientsSnapshot = null;
+	ingredients.remove(sortedIngredients.remove(index));
+	fireIntervalRemoved(this, index, index);
+    }
+
+    // a copy, because recipes must not change with later edits, which is only
+    // taken again after a change
+    Set<Ingredient> getIngredients() {
+	if (ingredientsSnapshot == null) {
+	    ingredientsSnapshot = Set.copyOf(ingredients);
+	}
+	return ingredientsSnapshot;
+    }
+
+    @Override
+    public int getSize() {
+	return sortedIngredients.size();
+    }
+
+    @Override
+    public Ingredient getElementAt(final int index) {
+	return sortedIngredients.get(index);
+    }
+}
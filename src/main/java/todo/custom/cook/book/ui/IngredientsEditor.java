@@ -2,46 +2,77 @@ package todo.custom.cook.book.ui;
 
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
-import javax.swing.Box;
+import javax.swing.AbstractAction;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.JButton;
-import javax.swing.JLabel;
+import javax.swing.JComponent;
+import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.KeyStroke;
 import javax.swing.border.EmptyBorder;
 
 import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.util.Interner;
 
 public final class IngredientsEditor {
+    private static final Ingredient PROTOTYPE_INGREDIENT = new Ingredient("Zutat", "1000 g");
+
     private final JPanel ingredientsEditorPanel = new JPanel();
-    private final JPanel ingredientsPanel = new JPanel();
-    private final Dimension preferredSizeOfIngredientsPanel = new Dimension(200, 200);
+    private final IngredientListModel ingredientListModel = new IngredientListModel();
+    private final JList<Ingredient> ingredientsList = new JList<>(ingredientListModel);
     private final JTextField ingredientNameInput = new JTextField();
     private final JTextField ingredientAmountInput = new JTextField();
     private final JButton addIngredientButton = new JButton("+");
-    private final Set<Ingredient> ingredients;
+    private final JButton deleteIngredientsButton = new JButton("-");
+    private final List<Runnable> changeListeners = new ArrayList<>();
+    private final Interner interner;
 
-    public IngredientsEditor(final Set<Ingredient> ingredients) {
-	this.ingredients = new HashSet<>(ingredients);
-	setupIngredientsPanel();
+    public IngredientsEditor(final Set<Ingredient> ingredients, final Interner interner) {
+	this.interner = interner;
+	// typed ingredients equal to ones of opened recipes share their instances
+	final Set<Ingredient> internedIngredients = new HashSet<>();
+	for (final Ingredient ingredient : ingredients) {
+	    internedIngredients.add(interner.intern(ingredient));
+	}
+	ingredientListModel.setAll(internedIngredients);
+	setupIngredientsList();
 	setupIngredientEditorPanel();
     }
 
-    public IngredientsEditor() {
-	this(Collections.emptySet());
+    public IngredientsEditor(final Interner interner) {
+	this(Collections.emptySet(), interner);
     }
 
-    private void setupIngredientsPanel() {
-	ingredientsPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 3, 3));
-	ingredientsPanel.setPreferredSize(preferredSizeOfIngredientsPanel);
-	for (final Ingredient ingredient : ingredients) {
-	    addIngredient(ingredient);
-	}
+    private void setupIngredientsList() {
+	// a prototype gives every row the same height, so that no row has to be
+	// measured
+	ingredientsList.setPrototypeCellValue(PROTOTYPE_INGREDIENT);
+	final DefaultListCellRenderer defaultListCellRenderer = new DefaultListCellRenderer();
+	ingredientsList.setCellRenderer((list, ingredient, index, isSelected, cellHasFocus) -> {
+	    return defaultListCellRenderer.getListCellRendererComponent(list, String.format("%s %s", ingredient.amount(), ingredient.name()), index, isSelected, cellHasFocus);
+	});
+	ingredientsList.getInputMap(JComponent.WHEN_FOCUSED)
+		.put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "deleteIngredients");
+	ingredientsList.getActionMap()
+		.put("deleteIngredients", new AbstractAction() {
+		    private static final long serialVersionUID = 1L;
+
+		    @Override
+		    public void actionPerformed(final ActionEvent e) {
+			deleteSelectedIngredients();
+		    }
+		});
     }
 
     private void setupIngredientEditorPanel() {
@@ -51,19 +82,17 @@ public final class IngredientsEditor {
 	    final String name = ingredientNameInput.getText();
 	    final String amount = ingredientAmountInput.getText();
 	    if (!name.isEmpty() && !name.isBlank() && !amount.isEmpty() && !amount.isBlank()) {
-		final Ingredient ingredient = new Ingredient(name, amount);
-		if (ingredients.contains(ingredient)) {
-		    return;
-		}
-		addIngredient(ingredient);
+		addIngredient(interner.intern(new Ingredient(name, amount)));
 	    }
 	});
+	deleteIngredientsButton.addActionListener(click -> {
+	    deleteSelectedIngredients();
+	});
 	ingredientsEditorPanel.setLayout(new BoxLayout(ingredientsEditorPanel, BoxLayout.Y_AXIS));
-	ingredientsPanel.setPreferredSize(new Dimension(500, 500));
-	final JScrollPane scrollableIngredientsPanel = new JScrollPane(ingredientsPanel, JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-	scrollableIngredientsPanel.setBorder(new EmptyBorder(0, 0, 0, 0));
-	scrollableIngredientsPanel.setPreferredSize(new Dimension(500, 150));
-	ingredientsEditorPanel.add(scrollableIngredientsPanel);
+	final JScrollPane scrollableIngredientsList = new JScrollPane(ingredientsList, JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+	scrollableIngredientsList.setBorder(new EmptyBorder(0, 0, 0, 0));
+	scrollableIngredientsList.setPreferredSize(new Dimension(500, 150));
+	ingredientsEditorPanel.add(scrollableIngredientsList);
 	ingredientsEditorPanel.add(createIngredientsControlPanel());
     }
 
@@ -72,29 +101,39 @@ public final class IngredientsEditor {
 	ingredientControlPanel.add(UICustomization.getLeftLabelledComponent(ingredientAmountInput, "Menge:", 3));
 	ingredientControlPanel.add(UICustomization.getLeftLabelledComponent(ingredientNameInput, "Zutat:", 3));
 	ingredientControlPanel.add(addIngredientButton);
+	ingredientControlPanel.add(deleteIngredientsButton);
 	return ingredientControlPanel;
     }
 
     private void addIngredient(final Ingredient ingredient) {
-	ingredients.add(ingredient);
-	final JPanel panel = new JPanel();
-	panel.setLayout(new BoxLayout(panel, BoxLayout.X_AXIS));
-	panel.add(new JLabel(String.format("%s %s", ingredient.amount(), ingredient.name())));
-	panel.add(Box.createHorizontalStrut(3));
-	final JButton deleteIngredientButton = new JButton("-");
-	deleteIngredientButton.addActionListener(click -> {
-	    ingredients.remove(ingredient);
-	    ingredientsPanel.remove(panel);
-	    ingredientsPanel.revalidate();
-	    ingredientsPanel.repaint();
-	});
-	panel.add(deleteIngredientButton);
-	ingredientsPanel.add(panel);
-	ingredientsPanel.add(Box.createHorizontalStrut(7));
-	ingredientsPanel.revalidate();
-	ingredientsPanel.repaint();
+	if (!ingredientListModel.add(ingredient)) {
+	    return;
+	}
 	ingredientNameInput.setText("");
 	ingredientAmountInput.setText("");
+	fireChange();
+    }
+
+    private void deleteSelectedIngredients() {
+	final int[] selectedIndices = ingredientsList.getSelectedIndices();
+	if (selectedIndices.length == 0) {
+	    return;
+	}
+	// from the back, so that the remaining indices stay valid
+	for (int i = selectedIndices.length - 1; i >= 0; i--) {
+	    ingredientListModel.remove(selectedIndices[i]);
+	}
+	fireChange();
+    }
+
+    private void fireChange() {
+	for (final Runnable changeListener : changeListeners) {
+	    changeListener.run();
+	}
+    }
+
+    public void addChangeListener(final Runnable changeListener) {
+	changeListeners.add(changeListener);
     }
 
     public JPanel getPanel() {
@@ -102,6 +141,6 @@ public final class IngredientsEditor {
     }
 
     public Set<Ingredient> getIngredients() {
-	return Collections.unmodifiableSet(ingredients);
+	return ingredientListModel.getIngredients();
     }
 }
@@ -1,7 +1,6 @@
 package todo.custom.cook.book.ui;
 
 import java.awt.Dimension;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -12,10 +11,15 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
 
 import todo.custom.cook.book.entity.Ingredient;
 import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.metrics.Metrics;
 import todo.custom.cook.book.util.Functions;
+import todo.custom.cook.book.util.Interner;
 
 public final class RecipeEditor {
     private final JPanel recipeEditorPanel = new JPanel();
@@ -25,25 +29,32 @@ public final class RecipeEditor {
     private final JTextField numberOfPortionsInput;
     private final JTextArea stepsInput;
     private final IngredientsEditor ingredientsEditor;
+    private final StepsModel stepsModel;
 
-    public RecipeEditor(final Recipe recipe) {
-	this.nameInput = new JTextField(recipe.name());
-	this.groupInput = new JTextField(recipe.group());
-	this.stepsInput = new JTextArea(getStepsAsString(recipe.steps()));
-	this.durationInput = new JTextField(recipe.duration());
-	this.numberOfPortionsInput = new JTextField(String.valueOf(recipe.numberOfPortions()));
-	this.ingredientsEditor = new IngredientsEditor(recipe.ingredients());
-	setupRecipePanel();
+    public RecipeEditor(final Recipe recipe, final Interner interner) {
+	try (final Metrics.Timing timing = Metrics.time(Metrics.RECIPE_EDITOR)) {
+	    this.nameInput = new JTextField(recipe.name());
+	    this.groupInput = new JTextField(recipe.group());
+	    this.stepsInput = new JTextArea(getStepsAsString(recipe.steps()));
+	    this.durationInput = new JTextField(recipe.duration());
+	    this.numberOfPortionsInput = new JTextField(String.valueOf(recipe.numberOfPortions()));
+	    this.ingredientsEditor = new IngredientsEditor(recipe.ingredients(), interner);
+	    this.stepsModel = new StepsModel(stepsInput.getDocument());
+	    setupRecipePanel();
+	}
     }
 
-    public RecipeEditor(final String recipeName) {
-	this.nameInput = new JTextField(recipeName);
-	this.groupInput = new JTextField();
-	this.stepsInput = new JTextArea();
-	this.durationInput = new JTextField();
-	this.numberOfPortionsInput = new JTextField();
-	this.ingredientsEditor = new IngredientsEditor();
-	setupRecipePanel();
+    public RecipeEditor(final String recipeName, final Interner interner) {
+	try (final Metrics.Timing timing = Metrics.time(Metrics.RECIPE_EDITOR)) {
+	    this.nameInput = new JTextField(recipeName);
+	    this.groupInput = new JTextField();
+	    this.stepsInput = new JTextArea();
+	    this.durationInput = new JTextField();
+	    this.numberOfPortionsInput = new JTextField();
+	    this.ingredientsEditor = new IngredientsEditor(interner);
+	    this.stepsModel = new StepsModel(stepsInput.getDocument());
+	    setupRecipePanel();
+	}
     }
 
     private void setupRecipePanel() {
@@ -64,47 +75,69 @@ public final class RecipeEditor {
     }
 
     private String getStepsAsString(final List<String> steps) {
-	final StringBuilder stepsAsSingleStringBuilder = new StringBuilder();
+	int length = 0;
+	for (final String step : steps) {
+	    length += step.length() + 2;
+	}
+	final StringBuilder stepsAsSingleStringBuilder = new StringBuilder(length);
 	for (final String step : steps) {
-	    stepsAsSingleStringBuilder.append(step + "\n\n");
+	    stepsAsSingleStringBuilder.append(step)
+		    .append("\n\n");
 	}
 	return stepsAsSingleStringBuilder.toString();
     }
 
-    private List<String> getSteps(final String stepsAsSingleString) {
-	final List<String> steps = new ArrayList<>();
-	for (final String step : stepsAsSingleString.split("\n")) {
-	    if (!Functions.emptyString(step)) {
-		steps.add(step);
+    public JPanel getPanel() {
+	return recipeEditorPanel;
+    }
+
+    public void addChangeListener(final Runnable changeListener) {
+	final DocumentListener documentListener = new DocumentListener() {
+	    @Override
+	    public void insertUpdate(final DocumentEvent e) {
+		changeListener.run();
 	    }
+
+	    @Override
+	    public void removeUpdate(final DocumentEvent e) {
+		changeListener.run();
+	    }
+
+	    @Override
+	    public void changedUpdate(final DocumentEvent e) {
+		changeListener.run();
+	    }
+	};
+	for (final JTextComponent input : List.of(nameInput, groupInput, durationInput, numberOfPortionsInput)) {
+	    input.getDocument()
+		    .addDocumentListener(documentListener);
 	}
-	return steps;
+	// the steps model has to be up to date before the listener reads the steps
+	stepsModel.addChangeListener(changeListener);
+	ingredientsEditor.addChangeListener(changeListener);
     }
 
-    public JPanel getPanel() {
-	return recipeEditorPanel;
+    // the current content without validation, e.g., for searching
+    public Recipe getDraft() {
+	return new Recipe(nameInput.getText(), stepsModel.getSteps(), durationInput.getText(), groupInput.getText(), numberOfPortionsInput.getText(), ingredientsEditor.getIngredients());
     }
 
     public Optional<Recipe> get() {
-	final String name = nameInput.getText();
-	final String group = groupInput.getText();
-	final String duration = durationInput.getText();
-	final String numberOfPortions = numberOfPortionsInput.getText();
-	final List<String> steps = getSteps(stepsInput.getText());
-	for (final String recipeAttribute : List.of(name, group, duration, numberOfPortions)) {
+	final Recipe draft = getDraft();
+	for (final String recipeAttribute : List.of(draft.name(), draft.group(), draft.duration(), draft.numberOfPortions())) {
 	    if (Functions.emptyString(recipeAttribute)) {
 		return Optional.empty();
 	    }
 	}
-	if (steps.isEmpty() || numberOfPortions.isEmpty() || numberOfPortions.isBlank()) {
-
+	if (draft.steps()
+		.isEmpty()) {
 	    return Optional.empty();
 	}
-	final Set<Ingredient> ingredients = ingredientsEditor.getIngredients();
+	final Set<Ingredient> ingredients = draft.ingredients();
 	if (ingredients.isEmpty()) {
 	    return Optional.empty();
 	}
-	return Optional.of(new Recipe(name, steps, duration, group, numberOfPortions, ingredients));
+	return Optional.of(draft);
     }
 
     @Override
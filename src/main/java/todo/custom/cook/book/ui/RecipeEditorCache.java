@@ -0,0 +1,38 @@
+package todo.custom.cook.book.ui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import todo.custom.cook.book.util.Interner;
+
+final class RecipeEditorCache {
+    private final Map<RecipeHandle, RecipeEditor> recipeEditors;
+    private final Interner interner;
+
+    RecipeEditorCache(final int capacity, final Interner interner) {
+	this.interner = interner;
+	this.recipeEditors = new LinkedHashMap<>(capacity + 1, 1.0f, true) {
+	    private static final long serialVersionUID = 1L;
+
+	    @Override
+	    protected boolean removeEldestEntry(final Map.Entry<RecipeHandle, RecipeEditor> eldest) {
+		if (size() <= capacity) {
+		    return false;
+		}
+		eldest.getKey()
+			.release();
+		return true;
+	    }
+	};
+    }
+
+    void remove(final RecipeHandle recipeHandle) {
+	recipeEditors.remove(recipeHandle);
+    }
+
+    RecipeEditor get(final RecipeHandle recipeHandle) {
+	final RecipeEditor recipeEditor = recipeHandle.getEditor(interner);
+	recipeEditors.put(recipeHandle, recipeEditor);
+	return recipeEditor;
+    }
+}
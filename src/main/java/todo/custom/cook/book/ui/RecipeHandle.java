@@ -0,0 +1,142 @@
+package todo.custom.cook.book.ui;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.util.Interner;
+
+/*
+ * Lightweight entry of the recipe selector. The Swing editor of a recipe is
+ * only built on demand and can be released again once its content is valid.
+ * The recipe itself can be loaded on demand as well, until then a preview of
+ * the recipe stands in for its draft.
+ */
+final class RecipeHandle {
+    private Recipe recipe;
+    private Recipe storedRecipe;
+    private String name;
+    private RecipeEditor recipeEditor;
+    private Supplier<Recipe> recipeLoader;
+    private final Consumer<RecipeHandle> changeListener;
+
+    RecipeHandle(final Recipe recipe, final Consumer<RecipeHandle> changeListener) {
+	this.recipe = recipe;
+	this.storedRecipe = recipe;
+	this.name = recipe.name();
+	this.changeListener = changeListener;
+    }
+
+    RecipeHandle(final String recipeName, final Consumer<RecipeHandle> changeListener) {
+	this.recipe = null;
+	this.name = recipeName;
+	this.changeListener = changeListener;
+    }
+
+    RecipeHandle(final Recipe preview, final Supplier<Recipe> recipeLoader, final Consumer<RecipeHandle> changeListener) {
+	this(preview, changeListener);
+	this.storedRecipe = null;
+	this.recipeLoader = recipeLoader;
+    }
+
+    RecipeEditor getEditor(final Interner interner) {
+	if (recipeEditor == null) {
+	    final boolean loaded = recipeLoader == null;
+	    final Recipe loadedRecipe = load();
+	    recipeEditor = loadedRecipe != null ? new RecipeEditor(loadedRecipe, interner) : new RecipeEditor(name, interner);
+	    recipeEditor.addChangeListener(() -> changeListener.accept(this));
+	    if (!loaded) {
+		// listeners only know the preview of a recipe which wasn't loaded yet
+		changeListener.accept(this);
+	    }
+	}
+	return recipeEditor;
+    }
+
+    // an editor with invalid content is kept, so that no edits get lost
+    boolean release() {
+	if (recipeEditor == null) {
+	    return true;
+	}
+	final Optional<Recipe> editedRecipe = recipeEditor.get();
+	if (editedRecipe.isEmpty()) {
+	    return false;
+	}
+	recipe = editedRecipe.get();
+	name = recipe.name();
+	recipeEditor = null;
+	return true;
+    }
+
+    Recipe getDraft() {
+	if (recipeEditor != null) {
+	    return recipeEditor.getDraft();
+	}
+	return recipe != null ? recipe : new Recipe(name, List.of(), "", "", "", Set.of());
+    }
+
+    Optional<Recipe> get() {
+	if (recipeEditor != null) {
+	    return recipeEditor.get();
+	}
+	return Optional.ofNullable(load());
+    }
+
+    // captures the current content on the EDT, a recipe which wasn't loaded yet is
+    // loaded by the caller of the supplier
+    Optional<Supplier<Recipe>> snapshot() {
+	if (recipeEditor == null && recipeLoader != null) {
+	    return Optional.of(recipeLoader);
+	}
+	final Optional<Recipe> currentRecipe = get();
+	if (currentRecipe.isEmpty()) {
+	    return Optional.empty();
+	}
+	final Recipe capturedRecipe = currentRecipe.get();
+	return Optional.of(() -> {
+	    return capturedRecipe;
+	});
+    }
+
+    // takes over a recipe modified by another program, the editor is built again on
+    // demand
+    void replace(final Recipe modifiedRecipe) {
+	recipe = modifiedRecipe;
+	storedRecipe = modifiedRecipe;
+	name = modifiedRecipe.name();
+	recipeEditor = null;
+	recipeLoader = null;
+    }
+
+    // the recipe as it was last loaded from or written to the file system, null for
+    // a new recipe
+    Recipe getStoredRecipe() {
+	return storedRecipe;
+    }
+
+    void setStoredRecipe(final Recipe storedRecipe) {
+	this.storedRecipe = storedRecipe;
+    }
+
+    // false as long as only the preview of the recipe is known
+    boolean isLoaded() {
+	return recipeLoader == null;
+    }
+
+    private Recipe load() {
+	if (recipeLoader != null) {
+	    recipe = recipeLoader.get();
+	    storedRecipe = recipe;
+	    recipeLoader = null;
+	}
+	return recipe;
+    }
+
+    @Override
+    public String toString() {
+	return recipeEditor != null ? recipeEditor.toString() : name;
+    }
+}
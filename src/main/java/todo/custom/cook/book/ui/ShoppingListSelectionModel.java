@@ -0,0 +1,104 @@
+package todo.custom.cook.book.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.table.AbstractTableModel;
+
+/*
+ * The recipes offered for a shopping list, each with whether it's bought for
+ * and the number of portions to buy for. Without a number of portions a recipe
+ * is bought for its own number of portions.
+ */
+final class ShoppingListSelectionModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final int SELECTED_COLUMN = 0;
+    private static final int NAME_COLUMN = 1;
+    private static final int PORTIONS_COLUMN = 2;
+    private static final List<String> COLUMN_NAMES = List.of("Einkaufen", "Rezept", "Portionen");
+
+    private final List<RecipeHandle> recipeHandles;
+    private final boolean[] selected;
+    private final Integer[] numbersOfPortions;
+
+    ShoppingListSelectionModel(final List<RecipeHandle> recipeHandles) {
+	this.recipeHandles = new ArrayList<>(recipeHandles);
+	this.selected = new boolean[recipeHandles.size()];
+	this.numbersOfPortions = new Integer[recipeHandles.size()];
+    }
+
+    void select(final RecipeHandle recipeHandle) {
+	final int row = recipeHandles.indexOf(recipeHandle);
+	if (row >= 0) {
+	    selected[row] = true;
+	    fireTableCellUpdated(row, SELECTED_COLUMN);
+	}
+    }
+
+    // in the order of the rows
+    List<Selection> getSelections() {
+	final List<Selection> selections = new ArrayList<>();
+	for (int row = 0; row < recipeHandles.size(); row++) {
+	    if (selected[row]) {
+		selections.add(new Selection(recipeHandles.get(row), numbersOfPortions[row]));
+	    }
+	}
+	return selections;
+    }
+
+    @Override
+    public int getRowCount() {
+	return recipeHandles.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+	return COLUMN_NAMES.size();
+    }
+
+    @Override
+    public String getColumnName(final int column) {
+	return COLUMN_NAMES.get(column);
+    }
+
+    @Override
+    public Class<?> getColumnClass(final int column) {
+	return switch (column) {
+	case SELECTED_COLUMN -> Boolean.class;
+	case PORTIONS_COLUMN -> Integer.class;
+	default -> String.class;
+	};
+    }
+
+    @Override
+    public boolean isCellEditable(final int row, final int column) {
+	return column != NAME_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(final int row, final int column) {
+	return switch (column) {
+	case SELECTED_COLUMN -> selected[row];
+	case PORTIONS_COLUMN -> numbersOfPortions[row];
+	default -> recipeHandles.get(row)
+		.toString();
+	};
+    }
+
+    @Override
+    public void setValueAt(final Object value, final int row, final int column) {
+	if (column == SELECTED_COLUMN) {
+	    selected[row] = (Boolean) value;
+	} else if (column == PORTIONS_COLUMN) {
+	    final Integer numberOfPortions = (Integer) value;
+	    // an empty or non-positive number means the recipe's own number of portions
+	    numbersOfPortions[row] = numberOfPortions != null && numberOfPortions > 0 ? numberOfPortions : null;
+	    // entering a number of portions means the recipe is wanted
+	    selected[row] = true;
+	}
+	fireTableRowsUpdated(row, row);
+    }
+
+    record Selection(RecipeHandle recipeHandle, Integer numberOfPortions) {
+    }
+}
@@ -0,0 +1,98 @@
+package todo.custom.cook.book.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+import todo.custom.cook.book.util.Functions;
+
+/*
+ * Mirrors the lines of the steps document and only updates the lines touched by
+ * an edit, the document already tells which lines these are. Reading the steps
+ * costs nothing as long as the document didn't change.
+ */
+final class StepsModel implements DocumentListener {
+    private final Document document;
+    private final List<String> lines = new ArrayList<>();
+    private final List<Runnable> changeListeners = new ArrayList<>();
+    private List<String> steps;
+
+    StepsModel(final Document document) {
+	this.document = document;
+	final Element root = document.getDefaultRootElement();
+	for (int i = 0; i < root.getElementCount(); i++) {
+	    lines.add(getText(root.getElement(i)));
+	}
+	document.addDocumentListener(this);
+    }
+
+    List<String> getSteps() {
+	if (steps == null) {
+	    final List<String> nonEmptyLines = new ArrayList<>();
+	    for (final String line : lines) {
+		if (!Functions.emptyString(line)) {
+		    nonEmptyLines.add(line);
+		}
+	    }
+	    steps = Collections.unmodifiableList(nonEmptyLines);
+	}
+	return steps;
+    }
+
+    // listeners are notified after the steps are up to date, in contrast to
+    // listeners of the document itself
+    void addChangeListener(final Runnable changeListener) {
+	changeListeners.add(changeListener);
+    }
+
+    @Override
+    public void insertUpdate(final DocumentEvent e) {
+	update(e);
+    }
+
+    @Override
+    public void removeUpdate(final DocumentEvent e) {
+	update(e);
+    }
+
+    @Override
+    public void changedUpdate(final DocumentEvent e) {
+	// only attributes changed
+    }
+
+    private void update(final DocumentEvent e) {
+	final Element root = document.getDefaultRootElement();
+	final DocumentEvent.ElementChange change = e.getChange(root);
+	if (change == null) {
+	    // the edit stayed within a single line
+	    final int index = root.getElementIndex(e.getOffset());
+	    lines.set(index, getText(root.getElement(index)));
+	} else {
+	    final List<String> changedLines = lines.subList(change.getIndex(), change.getIndex() + change.getChildrenRemoved().length);
+	    changedLines.clear();
+	    for (final Element addedLine : change.getChildrenAdded()) {
+		changedLines.add(getText(addedLine));
+	    }
+	}
+	steps = null;
+	for (final Runnable changeListener : changeListeners) {
+	    changeListener.run();
+	}
+    }
+
+    private String getText(final Element line) {
+	try {
+	    final int end = Math.min(line.getEndOffset(), document.getLength());
+	    final String text = document.getText(line.getStartOffset(), end - line.getStartOffset());
+	    return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+	} catch (final BadLocationException e) {
+	    throw new IllegalStateException("Unable to read line of steps", e);
+	}
+    }
+}
@@ -0,0 +1,123 @@
+package todo.custom.cook.book.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Stable SHA-256 based hashes of the entities. In contrast to hashCode(), they
+ * are equal across runs and don't depend on the iteration order of sets.
+ */
+public final class ContentHash {
+    private final MessageDigest messageDigest;
+
+    private ContentHash() {
+	try {
+	    this.messageDigest = MessageDigest.getInstance("SHA-256");
+	} catch (final NoSuchAlgorithmException e) {
+	    throw new IllegalStateException("SHA-256 is not supported", e);
+	}
+    }
+
+    public static String of(final Recipe recipe) {
+	return new ContentHash().add(recipe)
+		.get();
+    }
+
+    public static String of(final CookBook cookBook) {
+	final List<String> recipeHashes = new ArrayList<>(cookBook.recipes()
+		.size());
+	for (final Recipe recipe : cookBook.recipes()) {
+	    recipeHashes.add(of(recipe));
+	}
+	// sorted, so that the hash doesn't depend on the iteration order of the set
+	Collections.sort(recipeHashes);
+	final ContentHash contentHash = new ContentHash();
+	contentHash.add(cookBook.name());
+	contentHash.add(cookBook.author());
+	contentHash.add(recipeHashes.size());
+	for (final String recipeHash : recipeHashes) {
+	    contentHash.add(recipeHash);
+	}
+	return contentHash.get();
+    }
+
+    public static String of(final String... strings) {
+	final ContentHash contentHash = new ContentHash();
+	for (final String string : strings) {
+	    contentHash.add(string);
+	}
+	return contentHash.get();
+    }
+
+    // the hash of the content of the file or of an absent value if it doesn't exist
+    public static String of(final Path file) throws IOException {
+	final ContentHash contentHash = new ContentHash();
+	if (!Files.exists(file)) {
+	    return contentHash.add((String) null)
+		    .get();
+	}
+	try (final InputStream inputStream = Files.newInputStream(file)) {
+	    final byte[] buffer = new byte[8192];
+	    int numberOfReadBytes;
+	    while ((numberOfReadBytes = inputStream.read(buffer)) >= 0) {
+		contentHash.messageDigest.update(buffer, 0, numberOfReadBytes);
+	    }
+	}
+	return contentHash.get();
+    }
+
+    private ContentHash add(final Recipe recipe) {
+	add(recipe.name());
+	add(recipe.duration());
+	add(recipe.group());
+	add(recipe.numberOfPortions());
+	add(recipe.steps()
+		.size());
+	for (final String step : recipe.steps()) {
+	    add(step);
+	}
+	final List<Ingredient> sortedIngredients = new ArrayList<>(recipe.ingredients());
+	sortedIngredients.sort(SortedRecipeIndex.INGREDIENT_ORDER);
+	add(sortedIngredients.size());
+	for (final Ingredient ingredient : sortedIngredients) {
+	    add(ingredient.name());
+	    add(ingredient.amount());
+	}
+	return this;
+    }
+
+    private ContentHash add(final String string) {
+	if (string == null) {
+	    add(-1);
+	    return this;
+	}
+	final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+	// length prefixed, so that ("ab", "c") and ("a", "bc") differ
+	add(bytes.length);
+	messageDigest.update(bytes);
+	return this;
+    }
+
+    private ContentHash add(final int number) {
+	messageDigest.update(new byte[] { (byte) (number >>> 24), (byte) (number >>> 16), (byte) (number >>> 8), (byte) number });
+	return this;
+    }
+
+    private String get() {
+	return HexFormat.of()
+		.formatHex(messageDigest.digest());
+    }
+}
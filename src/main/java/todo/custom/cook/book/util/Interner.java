@@ -0,0 +1,58 @@
+package todo.custom.cook.book.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Canonical instances of the values which repeat across recipes, i.e., groups,
+ * durations, portions and ingredients. A large cook book only has a few
+ * thousand distinct ones, so sharing them saves most of the heap of the loaded
+ * recipes and equal values are mostly identical, which makes equals() cheap.
+ * Names of recipes and steps are unique and therefore not interned. An interner
+ * belongs to a single load of a cook book, so that the values of cook books
+ * which are no longer used can be collected.
+ */
+public final class Interner {
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<Ingredient, Ingredient> ingredients = new ConcurrentHashMap<>();
+
+    public String intern(final String string) {
+	if (string == null) {
+	    return null;
+	}
+	final String canonicalString = strings.putIfAbsent(string, string);
+	return canonicalString != null ? canonicalString : string;
+    }
+
+    public Ingredient intern(final Ingredient ingredient) {
+	if (ingredient == null) {
+	    return null;
+	}
+	final Ingredient canonicalIngredient = ingredients.get(ingredient);
+	if (canonicalIngredient != null) {
+	    return canonicalIngredient;
+	}
+	final Ingredient internedIngredient = new Ingredient(intern(ingredient.name()), intern(ingredient.amount()));
+	final Ingredient concurrentIngredient = ingredients.putIfAbsent(internedIngredient, internedIngredient);
+	return concurrentIngredient != null ? concurrentIngredient : internedIngredient;
+    }
+
+    public Recipe intern(final Recipe recipe) {
+	if (recipe == null) {
+	    return null;
+	}
+	Set<Ingredient> internedIngredients = recipe.ingredients();
+	if (internedIngredients != null) {
+	    internedIngredients = new HashSet<>((int) (internedIngredients.size() / 0.75f) + 1);
+	    for (final Ingredient ingredient : recipe.ingredients()) {
+		internedIngredients.add(intern(ingredient));
+	    }
+	}
+	return new Recipe(recipe.name(), recipe.steps(), intern(recipe.duration()), intern(recipe.group()), intern(recipe.numberOfPortions()), internedIngredients);
+    }
+}
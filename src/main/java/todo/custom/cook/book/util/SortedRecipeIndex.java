@@ -0,0 +1,175 @@
+package todo.custom.cook.book.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+/*
+ * Recipes ordered by group and name as well as by name only, together with
+ * their ingredients ordered by name. Updates only move the updated recipe, and
+ * copies share the immutable entries, so the order of a cook book is never
+ * sorted from scratch while it is edited.
+ */
+public final class SortedRecipeIndex<K> {
+    public static final Comparator<Ingredient> INGREDIENT_ORDER = Comparator.comparing(Ingredient::name, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+	    .thenComparing(Ingredient::amount, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+    // recipes with equal names are kept in the order they were added
+    private static final Comparator<Entry<?>> NAME_ORDER = Comparator.comparing((final Entry<?> entry) -> {
+	return entry.sortedRecipe()
+		.recipe()
+		.name();
+    }, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+	    .thenComparingLong(Entry::sequence);
+
+    private final Map<K, Entry<K>> entriesByKey;
+    private final NavigableMap<String, NavigableSet<Entry<K>>> entriesByGroupName;
+    private final NavigableSet<Entry<K>> entriesByName;
+    private long nextSequence;
+
+    public SortedRecipeIndex() {
+	this.entriesByKey = new HashMap<>();
+	this.entriesByGroupName = new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+	this.entriesByName = new TreeSet<>(NAME_ORDER);
+    }
+
+    private SortedRecipeIndex(final SortedRecipeIndex<K> recipeIndex) {
+	// copying sorted collections doesn't compare the elements again
+	this.entriesByKey = new HashMap<>(recipeIndex.entriesByKey);
+	this.entriesByGroupName = new TreeMap<>(recipeIndex.entriesByGroupName);
+	for (final Map.Entry<String, NavigableSet<Entry<K>>> group : entriesByGroupName.entrySet()) {
+	    group.setValue(new TreeSet<>(group.getValue()));
+	}
+	this.entriesByName = new TreeSet<>(recipeIndex.entriesByName);
+	this.nextSequence = recipeIndex.nextSequence;
+    }
+
+    public static SortedRecipeIndex<Recipe> of(final CookBook cookBook) {
+	final SortedRecipeIndex<Recipe> recipeIndex = new SortedRecipeIndex<>();
+	for (final Recipe recipe : cookBook.recipes()) {
+	    recipeIndex.update(recipe, recipe);
+	}
+	return recipeIndex;
+    }
+
+    public void update(final K key, final Recipe recipe) {
+	final Entry<K> oldEntry = entriesByKey.get(key);
+	final Entry<K> newEntry;
+	if (oldEntry == null) {
+	    newEntry = new Entry<>(key, new SortedRecipe(recipe, sort(recipe)), nextSequence++);
+	} else {
+	    remove(oldEntry);
+	    final SortedRecipe oldSortedRecipe = oldEntry.sortedRecipe();
+	    // most edits don't touch the ingredients
+	    final List<Ingredient> sortedIngredients = oldSortedRecipe.recipe()
+		    .ingredients()
+		    .equals(recipe.ingredients()) ? oldSortedRecipe.ingredients() : sort(recipe);
+	    newEntry = new Entry<>(key, new SortedRecipe(recipe, sortedIngredients), oldEntry.sequence());
+	}
+	entriesByKey.put(key, newEntry);
+	entriesByGroupName.computeIfAbsent(recipe.group(), groupName -> {
+	    return new TreeSet<>(NAME_ORDER);
+	})
+		.add(newEntry);
+	entriesByName.add(newEntry);
+    }
+
+    public void remove(final K key) {
+	final Entry<K> entry = entriesByKey.remove(key);
+	if (entry != null) {
+	    remove(entry);
+	}
+    }
+
+    public Recipe get(final K key) {
+	final Entry<K> entry = entriesByKey.get(key);
+	return entry != null ? entry.sortedRecipe()
+		.recipe() : null;
+    }
+
+    public SortedRecipeIndex<K> copy() {
+	return new SortedRecipeIndex<>(this);
+    }
+
+    public int size() {
+	return entriesByKey.size();
+    }
+
+    public Set<String> getGroupNames() {
+	return Collections.unmodifiableSet(entriesByGroupName.navigableKeySet());
+    }
+
+    public List<SortedRecipe> getRecipes(final String groupName) {
+	final NavigableSet<Entry<K>> entriesOfGroup = entriesByGroupName.get(groupName);
+	if (entriesOfGroup == null) {
+	    return List.of();
+	}
+	final List<SortedRecipe> sortedRecipes = new ArrayList<>(entriesOfGroup.size());
+	for (final Entry<K> entry : entriesOfGroup) {
+	    sortedRecipes.add(entry.sortedRecipe());
+	}
+	return sortedRecipes;
+    }
+
+    public List<Recipe> getRecipes() {
+	final List<Recipe> recipes = new ArrayList<>(entriesByKey.size());
+	for (final NavigableSet<Entry<K>> entriesOfGroup : entriesByGroupName.values()) {
+	    for (final Entry<K> entry : entriesOfGroup) {
+		recipes.add(entry.sortedRecipe()
+			.recipe());
+	    }
+	}
+	return recipes;
+    }
+
+    public List<K> getKeysByName() {
+	final List<K> keys = new ArrayList<>(entriesByName.size());
+	for (final Entry<K> entry : entriesByName) {
+	    keys.add(entry.key());
+	}
+	return keys;
+    }
+
+    // the position of the recipe in the order of getKeysByName(), -1 if it isn't
+    // indexed
+    public int getIndexByName(final K key) {
+	final Entry<K> entry = entriesByKey.get(key);
+	return entry != null ? entriesByName.headSet(entry)
+		.size() : -1;
+    }
+
+    private void remove(final Entry<K> entry) {
+	final String groupName = entry.sortedRecipe()
+		.recipe()
+		.group();
+	final NavigableSet<Entry<K>> entriesOfGroup = entriesByGroupName.get(groupName);
+	entriesOfGroup.remove(entry);
+	if (entriesOfGroup.isEmpty()) {
+	    entriesByGroupName.remove(groupName);
+	}
+	entriesByName.remove(entry);
+    }
+
+    private static List<Ingredient> sort(final Recipe recipe) {
+	final List<Ingredient> sortedIngredients = new ArrayList<>(recipe.ingredients());
+	sortedIngredients.sort(INGREDIENT_ORDER);
+	return Collections.unmodifiableList(sortedIngredients);
+    }
+
+    public record SortedRecipe(Recipe recipe, List<Ingredient> ingredients) {
+    }
+
+    private record Entry<K>(K key, SortedRecipe sortedRecipe, long sequence) {
+    }
+}
@@ -0,0 +1,96 @@
+package todo.custom.cook.book.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class CookBookBinaryFormatTest {
+    private static final CookBook COOK_BOOK = new CookBook("Omas Küche", "Großmutter", Set.of(new Recipe("Käsespätzle", List.of("Spätzle kochen.", "Mit Käse schichten.", "Spätzle kochen."), "45 min", "Hauptgericht", "4", Set.of(new Ingredient("Bergkäse", "200 g"), new Ingredient("Mehl", "400 g"))), new Recipe("Apfelkuchen", List.of("Äpfel schälen."), "90 min", "Kuchen", "12", Set.of(new Ingredient("Mehl", "250 g"), new Ingredient("Äpfel", "1 kg")))));
+
+    @TempDir
+    Path directory;
+    private Path cookBookFilePath;
+
+    @BeforeEach
+    void storeBinaryCookBook() {
+	cookBookFilePath = directory.resolve("cookBook.json");
+	final CookBookIO cookBookIO = new CookBookIO(cookBookFilePath);
+	cookBookIO.store(COOK_BOOK);
+	cookBookIO.convertTo(StorageFormat.BINARY);
+    }
+
+    @Test
+    void cookBookIsReadAsWritten() throws IOException {
+	assertTrue(CookBookBinaryFormat.isBinary(cookBookFilePath));
+	assertEquals(COOK_BOOK, new CookBookIO(cookBookFilePath).get());
+    }
+
+    @Test
+    void noRecipeIsPassedOnIfTheChecksumDoesNotMatch() throws IOException {
+	final byte[] bytes = Files.readAllBytes(cookBookFilePath);
+	final int stepOffset = indexOf(bytes, "Äpfel schälen.".getBytes(StandardCharsets.UTF_8));
+	// "Äpfel Schälen." instead of "Äpfel schälen."
+	bytes[stepOffset + "Äpfel ".getBytes(StandardCharsets.UTF_8).length] = 'S';
+	Files.write(cookBookFilePath, bytes);
+
+	assertNothingIsPassedOn();
+    }
+
+    @Test
+    void noRecipeIsPassedOnIfTheFileIsTruncated() throws IOException {
+	final byte[] bytes = Files.readAllBytes(cookBookFilePath);
+	Files.write(cookBookFilePath, Arrays.copyOf(bytes, bytes.length - 2));
+
+	assertNothingIsPassedOn();
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+	final byte[] bytes = Files.readAllBytes(cookBookFilePath);
+	// the version follows the magic "CCBK"
+	bytes[4] = 2;
+	Files.write(cookBookFilePath, bytes);
+
+	final IOException exception = assertThrows(IOException.class, () -> {
+	    CookBookBinaryFormat.readGeneration(cookBookFilePath);
+	});
+	assertTrue(exception.getMessage()
+		.contains("version"));
+	assertNothingIsPassedOn();
+    }
+
+    private void assertNothingIsPassedOn() {
+	final List<Recipe> passedRecipes = new ArrayList<>();
+	assertThrows(IllegalStateException.class, () -> {
+	    new CookBookIO(cookBookFilePath).get(passedRecipes::add, progressInPercent -> {
+	    });
+	});
+	assertEquals(List.of(), passedRecipes);
+    }
+
+    private static int indexOf(final byte[] bytes, final byte[] part) {
+	for (int i = 0; i + part.length <= bytes.length; i++) {
+	    if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+		return i;
+	    }
+	}
+	throw new IllegalArgumentException("Not contained");
+    }
+}
@@ -0,0 +1,51 @@
+package todo.custom.cook.book.io;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class CookBookIOTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void externalChangeRightBeforeOwnWriteIsReported() {
+	final Path cookBookFilePath = directory.resolve("cookBook.json");
+	final CookBookIO cookBookIO = new CookBookIO(cookBookFilePath);
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Stored"))));
+	cookBookIO.get();
+	// another program, e.g., a second editor of the same cook book
+	new CookBookIO(cookBookFilePath).storeRecipe(recipe("External"));
+
+	cookBookIO.storeRecipe(recipe("Own"));
+
+	assertTrue(cookBookIO.isChangedExternally());
+	cookBookIO.get();
+	assertFalse(cookBookIO.isChangedExternally());
+    }
+
+    @Test
+    void ownWritesAreNotReported() {
+	final CookBookIO cookBookIO = new CookBookIO(directory.resolve("cookBook.json"));
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Stored"))));
+
+	cookBookIO.storeRecipe(recipe("Own"));
+	cookBookIO.deleteRecipe("Stored");
+
+	assertFalse(cookBookIO.isChangedExternally());
+    }
+
+    private static Recipe recipe(final String name) {
+	return new Recipe(name, List.of("Alles verrühren."), "10 min", "Kuchen", "4", Set.of(new Ingredient("Mehl", "200 g")));
+    }
+}
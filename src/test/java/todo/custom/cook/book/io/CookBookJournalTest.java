@@ -0,0 +1,89 @@
+package todo.custom.cook.book.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class CookBookJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesAppendedAfterATornEntryAreRead() throws IOException {
+	final CookBookIO cookBookIO = new CookBookIO(directory.resolve("cookBook.json"));
+	final Recipe storedRecipe = recipe("Stored");
+	final Recipe tornRecipe = recipe("Torn");
+	final Recipe appendedRecipe = recipe("Appended");
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(storedRecipe)));
+	cookBookIO.storeRecipe(tornRecipe);
+	final Path journalFilePath = directory.resolve("cookBook.journal");
+	// a crash in the middle of writing the last entry
+	try (final FileChannel channel = FileChannel.open(journalFilePath, StandardOpenOption.WRITE)) {
+	    channel.truncate(channel.size() - 10);
+	}
+
+	cookBookIO.storeRecipe(appendedRecipe);
+
+	assertEquals(Set.of(storedRecipe, appendedRecipe), new CookBookIO(directory.resolve("cookBook.json")).get()
+		.recipes());
+	cookBookIO.compact();
+	assertEquals(Set.of(storedRecipe, appendedRecipe), new CookBookIO(directory.resolve("cookBook.json")).get()
+		.recipes());
+    }
+
+    @Test
+    void entriesWithoutOperationAreSkipped() throws IOException {
+	final CookBookIO cookBookIO = new CookBookIO(directory.resolve("cookBook.json"));
+	final Recipe storedRecipe = recipe("Stored");
+	final Recipe appendedRecipe = recipe("Appended");
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(storedRecipe)));
+	Files.writeString(directory.resolve("cookBook.journal"), "{}\n{\"op\":\"upsert\",\"name\":\"Empty\"}\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+	cookBookIO.storeRecipe(appendedRecipe);
+
+	assertEquals(Set.of(storedRecipe, appendedRecipe), new CookBookIO(directory.resolve("cookBook.json")).get()
+		.recipes());
+    }
+
+    @Test
+    void entriesAppendedToTheJournalOfAnOlderSnapshotAreRead() throws IOException {
+	final CookBookIO cookBookIO = new CookBookIO(directory.resolve("cookBook.json"));
+	final Recipe firstRecipe = recipe("One");
+	final Recipe secondRecipe = recipe("Two");
+	final Recipe thirdRecipe = recipe("Three");
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(firstRecipe)));
+	cookBookIO.storeRecipe(secondRecipe);
+	final Path journalFilePath = directory.resolve("cookBook.journal");
+	final byte[] journalOfFirstSnapshot = Files.readAllBytes(journalFilePath);
+	// a crash after the snapshot of the compaction was renamed, but before the
+	// journal was reset
+	cookBookIO.compact();
+	Files.write(journalFilePath, journalOfFirstSnapshot);
+
+	cookBookIO.storeRecipe(thirdRecipe);
+
+	assertEquals(Set.of(firstRecipe, secondRecipe, thirdRecipe), new CookBookIO(directory.resolve("cookBook.json")).get()
+		.recipes());
+	cookBookIO.compact();
+	assertEquals(Set.of(firstRecipe, secondRecipe, thirdRecipe), new CookBookIO(directory.resolve("cookBook.json")).get()
+		.recipes());
+    }
+
+    private static Recipe recipe(final String name) {
+	return new Recipe(name, List.of("Alles verrühren."), "10 min", "Kuchen", "4", Set.of(new Ingredient("Mehl", "200 g")));
+    }
+}
@@ -0,0 +1,110 @@
+package todo.custom.cook.book.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class RecipeImportTest {
+    private final Gson jsonParser = new Gson();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recipesAreMergedInTheOrderOfTheFiles() throws IOException {
+	// written in reverse order, so that the order doesn't come from the file system
+	writeJson("c.json", List.of(recipe("Brot", "Dinkelmehl"), recipe("Suppe", "Wasser")));
+	writeJson("b.json", recipe("Brot", "Roggenmehl"));
+	writeJson("a.json", List.of(recipe("Kuchen", "Zucker"), recipe("Brot", "Weizenmehl")));
+
+	final RecipeImport.Result result = new RecipeImport(directory, 4).read(List.of());
+
+	assertEquals(List.of(recipe("Kuchen", "Zucker"), recipe("Brot", "Weizenmehl"), recipe("Brot (2)", "Roggenmehl"), recipe("Brot (3)", "Dinkelmehl"), recipe("Suppe", "Wasser")), result.recipes());
+	assertEquals(0, result.numberOfDuplicates());
+    }
+
+    @Test
+    void recipesEqualToExistingOrImportedOnesAreSkipped() throws IOException {
+	final Recipe bread = recipe("Brot", "Mehl");
+	// the same recipe, once it's normalized
+	writeJson("a.json", new Recipe(" Brot ", List.of("Alles verrühren.", " "), "10 min ", "Backen", "4", Set.of(new Ingredient("Mehl ", " 200 g"))));
+	writeJson("b.json", List.of(recipe("Kuchen", "Zucker"), recipe("Kuchen", "Zucker")));
+	writeJson("c.json", recipe("Kuchen", "Zucker"));
+
+	final RecipeImport.Result result = new RecipeImport(directory, 4).read(List.of(bread));
+
+	assertEquals(List.of(recipe("Kuchen", "Zucker")), result.recipes());
+	assertEquals(3, result.numberOfDuplicates());
+    }
+
+    @Test
+    void differentRecipesOfExistingNamesAreRenamed() throws IOException {
+	writeJson("a.json", List.of(recipe("Brot", "Roggenmehl"), recipe("Brot (2)", "Dinkelmehl")));
+
+	final RecipeImport.Result result = new RecipeImport(directory, 1).read(List.of(recipe("Brot", "Weizenmehl"), recipe("Brot (3)", "Hafer")));
+
+	assertEquals(List.of(recipe("Brot (2)", "Roggenmehl"), recipe("Brot (2) (2)", "Dinkelmehl")), result.recipes());
+    }
+
+    @Test
+    void invalidRecipesAreCounted() throws IOException {
+	writeJson("a.json", List.of(recipe("Brot", "Mehl"), new Recipe("Ohne Schritte", List.of(" "), "10 min", "Backen", "4", Set.of(new Ingredient("Mehl", "200 g"))), new Recipe("Ohne Gruppe", List.of("Backen."), "10 min", "", "4", Set.of(new Ingredient("Mehl", "200 g")))));
+
+	final RecipeImport.Result result = new RecipeImport(directory, 1).read(List.of());
+
+	assertEquals(List.of(recipe("Brot", "Mehl")), result.recipes());
+	assertEquals(2, result.numberOfInvalidRecipes());
+    }
+
+    @Test
+    void filesWhichCantBeReadAreReportedAndSkipped() throws IOException {
+	writeJson("a.json", recipe("Brot", "Mehl"));
+	Files.writeString(directory.resolve("b.json"), "{\"name\": ", StandardCharsets.UTF_8);
+	writeJson("c.json", recipe("Kuchen", "Zucker"));
+	Files.writeString(directory.resolve("notes.txt"), "no recipe", StandardCharsets.UTF_8);
+
+	final RecipeImport.Result result = new RecipeImport(directory, 4).read(List.of());
+
+	assertEquals(List.of(recipe("Brot", "Mehl"), recipe("Kuchen", "Zucker")), result.recipes());
+	assertEquals(List.of(directory.resolve("b.json")), result.failedFiles());
+    }
+
+    @Test
+    void cookBooksAreReadWithAllTheirRecipes() throws IOException {
+	final Path cookBookDirectory = Files.createDirectory(directory.resolve("json"));
+	final CookBookIO cookBookIO = new CookBookIO(cookBookDirectory.resolve("cookBook.json"));
+	cookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl"))));
+	// only in the journal
+	cookBookIO.storeRecipe(recipe("Kuchen", "Zucker"));
+	new ShardedCookBookIO(directory.resolve("sharded")).store(new CookBook("Name", "Author", Set.of(recipe("Suppe", "Wasser"), recipe("Salat", "Gurke"))));
+
+	final RecipeImport.Result result = new RecipeImport(directory, 4).read(List.of());
+
+	assertEquals(Set.of(recipe("Brot", "Mehl"), recipe("Kuchen", "Zucker"), recipe("Suppe", "Wasser"), recipe("Salat", "Gurke")), Set.copyOf(result.recipes()));
+	assertEquals(4, result.recipes()
+		.size());
+	assertEquals(List.of(), result.failedFiles());
+    }
+
+    private void writeJson(final String fileName, final Object content) throws IOException {
+	Files.writeString(directory.resolve(fileName), jsonParser.toJson(content), StandardCharsets.UTF_8);
+    }
+
+    private static Recipe recipe(final String name, final String ingredientName) {
+	return new Recipe(name, List.of("Alles verrühren."), "10 min", "Backen", "4", Set.of(new Ingredient(ingredientName, "200 g")));
+    }
+}
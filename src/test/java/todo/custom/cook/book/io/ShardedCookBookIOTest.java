@@ -0,0 +1,135 @@
+package todo.custom.cook.book.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class ShardedCookBookIOTest {
+    private static final FileTime PAST = FileTime.fromMillis(0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cookBookIsReadAsStored() {
+	final CookBook cookBook = new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl"), recipe("Kuchen", "Zucker"), recipe("Suppe", "Wasser")));
+
+	new ShardedCookBookIO(directory).store(cookBook);
+
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(directory);
+	assertEquals(cookBook, shardedCookBookIO.get());
+	final List<ShardedCookBookIO.RecipeEntry> recipeEntries = shardedCookBookIO.getManifest()
+		.recipes();
+	assertEquals(List.of("Brot", "Kuchen", "Suppe"), recipeEntries.stream()
+		.map(ShardedCookBookIO.RecipeEntry::name)
+		.toList());
+    }
+
+    @Test
+    void storingARecipeOnlyWritesItsOwnShard() throws IOException {
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(directory);
+	shardedCookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl"), recipe("Kuchen", "Zucker"), recipe("Suppe", "Wasser"))));
+	final Map<String, Path> shardsBefore = getShardsByRecipeName(shardedCookBookIO);
+	for (final Path shard : shardsBefore.values()) {
+	    Files.setLastModifiedTime(shard, PAST);
+	}
+
+	shardedCookBookIO.storeRecipe(recipe("Kuchen", "Honig"));
+
+	final Map<String, Path> shardsAfter = getShardsByRecipeName(shardedCookBookIO);
+	assertEquals(shardsBefore.get("Brot"), shardsAfter.get("Brot"));
+	assertEquals(PAST, Files.getLastModifiedTime(shardsAfter.get("Brot")));
+	assertEquals(PAST, Files.getLastModifiedTime(shardsAfter.get("Suppe")));
+	assertFalse(Files.exists(shardsBefore.get("Kuchen")));
+	assertEquals(Set.copyOf(shardsAfter.values()), listShards());
+	assertEquals(recipe("Kuchen", "Honig"), new ShardedCookBookIO(directory).get()
+		.recipes()
+		.stream()
+		.filter(recipe -> {
+		    return recipe.name()
+			    .equals("Kuchen");
+		})
+		.findFirst()
+		.orElseThrow());
+    }
+
+    @Test
+    void shardsOfDeletedRecipesAreDeleted() throws IOException {
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(directory);
+	shardedCookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl"), recipe("Kuchen", "Zucker"))));
+
+	shardedCookBookIO.deleteRecipe("Kuchen");
+
+	assertEquals(Set.copyOf(getShardsByRecipeName(shardedCookBookIO).values()), listShards());
+	assertEquals(Set.of(recipe("Brot", "Mehl")), shardedCookBookIO.get()
+		.recipes());
+    }
+
+    @Test
+    void orphanedShardsAreDeletedByAFullStore() throws IOException {
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(directory);
+	final CookBook cookBook = new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl")));
+	shardedCookBookIO.store(cookBook);
+	// e.g., left behind by a crash after the manifest was replaced
+	final Path orphanedShard = directory.resolve("recipes")
+		.resolve("orphan.json");
+	Files.writeString(orphanedShard, "{}");
+
+	shardedCookBookIO.storeRecipe(recipe("Kuchen", "Zucker"));
+	assertTrue(Files.exists(orphanedShard));
+	shardedCookBookIO.store(cookBook);
+
+	assertFalse(Files.exists(orphanedShard));
+	assertEquals(Set.copyOf(getShardsByRecipeName(shardedCookBookIO).values()), listShards());
+    }
+
+    @Test
+    void outdatedEntryReadsTheCurrentRecipe() {
+	final ShardedCookBookIO shardedCookBookIO = new ShardedCookBookIO(directory);
+	shardedCookBookIO.store(new CookBook("Name", "Author", Set.of(recipe("Brot", "Mehl"))));
+	final ShardedCookBookIO.RecipeEntry recipeEntry = shardedCookBookIO.getManifest()
+		.recipes()
+		.get(0);
+
+	new ShardedCookBookIO(directory).storeRecipe(recipe("Brot", "Roggenmehl"));
+
+	assertEquals(recipe("Brot", "Roggenmehl"), shardedCookBookIO.getRecipe(recipeEntry));
+    }
+
+    private static Map<String, Path> getShardsByRecipeName(final ShardedCookBookIO shardedCookBookIO) {
+	final Map<String, Path> shardsByRecipeName = new HashMap<>();
+	for (final ShardedCookBookIO.RecipeEntry recipeEntry : shardedCookBookIO.getManifest()
+		.recipes()) {
+	    shardsByRecipeName.put(recipeEntry.name(), shardedCookBookIO.getShardFilePath(recipeEntry.hash()));
+	}
+	return shardsByRecipeName;
+    }
+
+    private Set<Path> listShards() throws IOException {
+	try (final Stream<Path> shards = Files.list(directory.resolve("recipes"))) {
+	    return shards.collect(Collectors.toSet());
+	}
+    }
+
+    private static Recipe recipe(final String name, final String ingredientName) {
+	return new Recipe(name, List.of("Alles verrühren."), "10 min", "Backen", "4", Set.of(new Ingredient(ingredientName, "200 g")));
+    }
+}
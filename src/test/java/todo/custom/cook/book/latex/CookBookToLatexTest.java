@@ -0,0 +1,55 @@
+package todo.custom.cook.book.latex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.entity.CookBook;
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+import todo.custom.cook.book.shopping.ShoppingList;
+import todo.custom.cook.book.util.SortedRecipeIndex;
+
+class CookBookToLatexTest {
+    private static final CookBook COOK_BOOK = new CookBook("Familienrezepte", "Oma & Opa", Set.of(
+	    new Recipe("Käsekuchen", List.of("Quark, Zucker & Eier verrühren.", "Bei 180 °C 60 min backen."), "90 min", "Kuchen", "12", Set.of(new Ingredient("Quark", "500 g"), new Ingredient("Zucker", "150 g"), new Ingredient("Eier", "3"))),
+	    new Recipe("Apfelkuchen", List.of("Äpfel schälen, 100% reif."), "60 min", "Kuchen", "8", Set.of(new Ingredient("Äpfel", "1 kg"), new Ingredient("Mehl", "250 g"))),
+	    new Recipe("Linsensuppe", List.of("Linsen_einweichen.", "Kochen, mit $Essig$ abschmecken."), "45 min", "Suppen", "4", Set.of(new Ingredient("Linsen", "300 g"), new Ingredient("Essig", "1 EL")))));
+
+    @Test
+    void streamedDocumentEqualsBuiltDocument() throws IOException {
+	final StringWriter streamedDocument = new StringWriter();
+	new CookBookToLatex(COOK_BOOK, new RecipeFragmentCache()).write(streamedDocument);
+
+	assertEquals(new CookBookToLatex(COOK_BOOK, new RecipeFragmentCache()).get()
+		.toString(), streamedDocument.toString());
+    }
+
+    @Test
+    void streamedDocumentWithShoppingListEqualsBuiltDocument() throws IOException {
+	final ShoppingList shoppingList = new ShoppingList();
+	for (final Recipe recipe : COOK_BOOK.recipes()) {
+	    shoppingList.add(recipe);
+	}
+	final StringWriter streamedDocument = new StringWriter();
+	new CookBookToLatex(COOK_BOOK, SortedRecipeIndex.of(COOK_BOOK), shoppingList, new RecipeFragmentCache()).write(streamedDocument);
+
+	assertEquals(new CookBookToLatex(COOK_BOOK, SortedRecipeIndex.of(COOK_BOOK), shoppingList, new RecipeFragmentCache()).get()
+		.toString(), streamedDocument.toString());
+    }
+
+    @Test
+    void headerEqualsPreambleOfBuiltDocument() {
+	final CookBookToLatex cookBookToLatex = new CookBookToLatex(COOK_BOOK, new RecipeFragmentCache());
+
+	assertTrue(cookBookToLatex.get()
+		.toString()
+		.startsWith(cookBookToLatex.getHeader()));
+    }
+}
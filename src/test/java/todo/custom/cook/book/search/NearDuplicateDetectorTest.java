@@ -0,0 +1,74 @@
+package todo.custom.cook.book.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class NearDuplicateDetectorTest {
+    private static final List<String> APPLE_PIE_STEPS = List.of("Mehl, Zucker, Butter und ein Ei zu einem glatten Mürbeteig verkneten und eine Stunde kalt stellen.", "Die Äpfel schälen, entkernen, in dünne Spalten schneiden und mit Zimt und Zitronensaft mischen.",
+	    "Den Teig ausrollen, in die gefettete Form legen, die Äpfel darauf verteilen und im vorgeheizten Ofen bei 180 Grad etwa 45 Minuten backen.");
+    private static final List<String> GOULASH_STEPS = List.of("Das Rindfleisch würfeln und in heißem Schmalz portionsweise kräftig von allen Seiten anbraten.", "Die Zwiebeln in Ringe schneiden, zum Fleisch geben und glasig dünsten, dann mit Paprikapulver bestäuben.",
+	    "Mit Rinderbrühe und Rotwein ablöschen und zugedeckt bei schwacher Hitze zwei Stunden schmoren lassen.");
+    private static final Set<Ingredient> APPLE_PIE_INGREDIENTS = Set.of(new Ingredient("Mehl", "250 g"), new Ingredient("Butter", "125 g"), new Ingredient("Äpfel", "1 kg"), new Ingredient("Zimt", "1 TL"));
+    private static final Set<Ingredient> GOULASH_INGREDIENTS = Set.of(new Ingredient("Rindfleisch", "1 kg"), new Ingredient("Zwiebeln", "500 g"), new Ingredient("Paprikapulver", "2 EL"), new Ingredient("Rotwein", "250 ml"));
+
+    @Test
+    void nearlyIdenticalRecipesAreGrouped() {
+	final Recipe applePie = new Recipe("Apfelkuchen", APPLE_PIE_STEPS, "90 min", "Kuchen", "12", APPLE_PIE_INGREDIENTS);
+	final List<String> changedSteps = new ArrayList<>(APPLE_PIE_STEPS);
+	changedSteps.set(2, changedSteps.get(2)
+		.replace("etwa 45", "ungefähr 45"));
+	final Recipe copiedApplePie = new Recipe("Omas Apfelkuchen", changedSteps, "1 h", "Backen", "12", APPLE_PIE_INGREDIENTS);
+	final Recipe goulash = new Recipe("Gulasch", GOULASH_STEPS, "150 min", "Hauptgericht", "4", GOULASH_INGREDIENTS);
+
+	final List<NearDuplicateDetector.DuplicateGroup> duplicateGroups = new NearDuplicateDetector().find(List.of(goulash, copiedApplePie, applePie));
+
+	assertEquals(1, duplicateGroups.size());
+	assertEquals(List.of(applePie, copiedApplePie), duplicateGroups.get(0)
+		.recipes());
+    }
+
+    @Test
+    void distinctRecipesAreNotGrouped() {
+	final Recipe applePie = new Recipe("Apfelkuchen", APPLE_PIE_STEPS, "90 min", "Kuchen", "12", APPLE_PIE_INGREDIENTS);
+	final Recipe goulash = new Recipe("Gulasch", GOULASH_STEPS, "150 min", "Hauptgericht", "4", GOULASH_INGREDIENTS);
+	// the same ingredients, but different steps
+	final Recipe appleCrumble = new Recipe("Apfelcrumble", List.of("Äpfel würfeln und in eine Auflaufform geben.", "Mehl, Butter und Zimt zu Streuseln reiben, darüber streuen und goldbraun überbacken."), "40 min", "Nachtisch", "4", APPLE_PIE_INGREDIENTS);
+	final Recipe emptyRecipe = new Recipe("Leer", List.of(), "", "", "", Set.of());
+
+	assertEquals(List.of(), new NearDuplicateDetector().find(List.of(applePie, goulash, appleCrumble, emptyRecipe, emptyRecipe)));
+    }
+
+    @Test
+    void recipesOfOversizedBucketsAreStillGrouped() {
+	final List<Recipe> recipes = new ArrayList<>();
+	for (int i = 0; i < 100; i++) {
+	    recipes.add(new Recipe(String.format("Apfelkuchen %03d", i), APPLE_PIE_STEPS, "90 min", "Kuchen", "12", APPLE_PIE_INGREDIENTS));
+	    recipes.add(new Recipe(String.format("Gulasch %03d", i), GOULASH_STEPS, "150 min", "Hauptgericht", "4", GOULASH_INGREDIENTS));
+	}
+
+	final List<NearDuplicateDetector.DuplicateGroup> duplicateGroups = new NearDuplicateDetector().find(recipes);
+
+	assertEquals(2, duplicateGroups.size());
+	for (final NearDuplicateDetector.DuplicateGroup duplicateGroup : duplicateGroups) {
+	    assertEquals(100, duplicateGroup.recipes()
+		    .size());
+	    assertEquals(1.0, duplicateGroup.similarity());
+	}
+	assertEquals("Apfelkuchen 000", duplicateGroups.get(0)
+		.recipes()
+		.get(0)
+		.name());
+	assertEquals("Gulasch 099", duplicateGroups.get(1)
+		.recipes()
+		.get(99)
+		.name());
+    }
+}
@@ -0,0 +1,70 @@
+package todo.custom.cook.book.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class RecipeSearchIndexTest {
+    @Test
+    void queryWordsMatchThePrefixesOfIndexedWords() {
+	final RecipeSearchIndex<String> recipeSearchIndex = new RecipeSearchIndex<>();
+	recipeSearchIndex.update("apple pie", recipe("Apfelkuchen", "Kuchen", "Äpfel schälen und mit Zimt bestreuen.", "Äpfel"));
+	recipeSearchIndex.update("bread", recipe("Brot", "Backen", "Teig kneten.", "Mehl"));
+
+	assertEquals(Set.of("apple pie"), recipeSearchIndex.search("apfel"));
+	assertEquals(Set.of("apple pie"), recipeSearchIndex.search("KUCH"));
+	assertEquals(Set.of("apple pie"), recipeSearchIndex.search("zim apf"));
+	assertEquals(Set.of("bread"), recipeSearchIndex.search("mehl"));
+	assertEquals(Set.of(), recipeSearchIndex.search("zimt mehl"));
+	assertEquals(Set.of(), recipeSearchIndex.search("kuchenblech"));
+	assertEquals(Set.of("apple pie", "bread"), recipeSearchIndex.search(""));
+    }
+
+    @Test
+    void umlautsAreFoundWithAndWithoutTheirReplacement() {
+	final RecipeSearchIndex<String> recipeSearchIndex = new RecipeSearchIndex<>();
+	recipeSearchIndex.update("spaetzle", recipe("Käsespätzle", "Hauptgericht", "Mit Soße servieren.", "Bergkäse"));
+
+	for (final String query : List.of("käse", "kaese", "kase", "KÄSE", "käsespä", "kaesespaetzle", "bergkä", "soße", "sosse")) {
+	    assertEquals(Set.of("spaetzle"), recipeSearchIndex.search(query), query);
+	}
+	assertEquals(Set.of(), recipeSearchIndex.search("quark"));
+    }
+
+    @Test
+    void updatedRecipesAreFoundByTheirNewContentOnly() {
+	final RecipeSearchIndex<String> recipeSearchIndex = new RecipeSearchIndex<>();
+	recipeSearchIndex.update("soup", recipe("Tomatensuppe", "Suppe", "Tomaten kochen.", "Tomaten"));
+
+	recipeSearchIndex.update("soup", recipe("Kürbissuppe", "Suppe", "Kürbis kochen.", "Kürbis"));
+
+	assertEquals(Set.of(), recipeSearchIndex.search("tomate"));
+	assertEquals(Set.of("soup"), recipeSearchIndex.search("kürbis"));
+	assertEquals(Set.of("soup"), recipeSearchIndex.search("suppe"));
+    }
+
+    @Test
+    void removedRecipesAreNotFound() {
+	final RecipeSearchIndex<String> recipeSearchIndex = new RecipeSearchIndex<>();
+	recipeSearchIndex.update("soup", recipe("Tomatensuppe", "Suppe", "Tomaten kochen.", "Tomaten"));
+	recipeSearchIndex.update("salad", recipe("Tomatensalat", "Salat", "Tomaten schneiden.", "Tomaten"));
+
+	recipeSearchIndex.remove("soup");
+	// takes the internal number of the removed recipe
+	recipeSearchIndex.update("bread", recipe("Brot", "Backen", "Teig kneten.", "Mehl"));
+
+	assertEquals(Set.of("salad"), recipeSearchIndex.search("tomaten"));
+	assertEquals(Set.of(), recipeSearchIndex.search("suppe"));
+	assertEquals(Set.of("salad", "bread"), recipeSearchIndex.search(""));
+    }
+
+    private static Recipe recipe(final String name, final String group, final String step, final String ingredientName) {
+	return new Recipe(name, List.of(step), "10 min", group, "4", Set.of(new Ingredient(ingredientName, "200 g")));
+    }
+}
@@ -0,0 +1,60 @@
+package todo.custom.cook.book.shopping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class AmountParserTest {
+    @Test
+    void metricUnitsAreConvertedToGramsAndMillilitres() {
+	final AmountParser amountParser = new AmountParser();
+
+	assertEquals(amount(200, "g"), amountParser.parse("200 g"));
+	assertEquals(amount(1500, "g"), amountParser.parse("1,5 kg"));
+	assertEquals(amount(2000, "g"), amountParser.parse("2KG"));
+	assertEquals(amount(0.5, "g"), amountParser.parse("500 mg"));
+	assertEquals(amount(250, "ml"), amountParser.parse("250 ml"));
+	assertEquals(amount(20, "ml"), amountParser.parse("2 cl"));
+	assertEquals(amount(100, "ml"), amountParser.parse("1 dl"));
+	assertEquals(amount(750, "ml"), amountParser.parse("0.75 l"));
+    }
+
+    @Test
+    void otherUnitsAreKeptAsTheyAre() {
+	final AmountParser amountParser = new AmountParser();
+
+	assertEquals(amount(2, "EL"), amountParser.parse("2 EL"));
+	assertEquals(amount(3, "Stück"), amountParser.parse("3 Stück"));
+	assertEquals(amount(4, ""), amountParser.parse("4"));
+    }
+
+    @Test
+    void fractionsAndRangesAreParsed() {
+	final AmountParser amountParser = new AmountParser();
+
+	assertEquals(amount(1.5, "EL"), amountParser.parse("1 1/2 EL"));
+	assertEquals(amount(0.75, "TL"), amountParser.parse("3/4 TL"));
+	assertEquals(amount(0.5, "TL"), amountParser.parse("½ TL"));
+	assertEquals(amount(2.25, "Tassen"), amountParser.parse("2¼ Tassen"));
+	// the upper bound, to buy enough
+	assertEquals(amount(3, "Stück"), amountParser.parse("2-3 Stück"));
+	assertEquals(amount(300, "g"), amountParser.parse("200 – 300 g"));
+    }
+
+    @Test
+    void unparsableAmountsAreEmpty() {
+	final AmountParser amountParser = new AmountParser();
+
+	for (final String amount : List.of("etwas", "eine Prise", "nach Geschmack", "", "1/0 EL")) {
+	    assertEquals(Optional.empty(), amountParser.parse(amount), amount);
+	}
+	assertEquals(Optional.empty(), amountParser.parse(null));
+    }
+
+    private static Optional<AmountParser.Amount> amount(final double quantity, final String unit) {
+	return Optional.of(new AmountParser.Amount(quantity, unit));
+    }
+}
@@ -0,0 +1,75 @@
+package todo.custom.cook.book.shopping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class ShoppingListTest {
+    @Test
+    void amountsOfTheSameIngredientAndUnitAreSummedUp() {
+	final ShoppingList shoppingList = new ShoppingList();
+	shoppingList.add(recipe("Brot", "4", new Ingredient("Mehl", "500 g"), new Ingredient("Milch", "250 ml")));
+	shoppingList.add(recipe("Kuchen", "4", new Ingredient("Mehl", "1 kg"), new Ingredient("Milch", "0,75 l"), new Ingredient("Eier", "3")));
+
+	assertEquals(List.of("3 Eier", "1,5 kg Mehl", "1 l Milch"), texts(shoppingList));
+    }
+
+    @Test
+    void differentUnitsOfAnIngredientAreListedSeparately() {
+	final ShoppingList shoppingList = new ShoppingList();
+	shoppingList.add(recipe("Salat", "2", new Ingredient("Öl", "2 EL")));
+	shoppingList.add(recipe("Brot", "4", new Ingredient("Öl", "100 ml")));
+
+	assertEquals(List.of("2 EL Öl", "100 ml Öl"), texts(shoppingList));
+    }
+
+    @Test
+    void unparsableAmountsAreListedOncePerText() {
+	final ShoppingList shoppingList = new ShoppingList();
+	shoppingList.add(recipe("Suppe", "4", new Ingredient("Salz", "etwas"), new Ingredient("Pfeffer", "1 Prise")));
+	shoppingList.add(recipe("Salat", "2", new Ingredient("Salz", "etwas"), new Ingredient("Pfeffer", "nach Geschmack")));
+
+	final List<ShoppingList.Item> items = shoppingList.getItems();
+	assertEquals(List.of("1 Prise Pfeffer", "nach Geschmack Pfeffer", "etwas Salz"), texts(shoppingList));
+	assertTrue(Double.isNaN(items.get(2)
+		.quantity()));
+    }
+
+    @Test
+    void amountsAreScaledToTheChosenNumberOfPortions() {
+	final ShoppingList shoppingList = new ShoppingList();
+	shoppingList.add(recipe("Brot", "4", new Ingredient("Mehl", "500 g"), new Ingredient("Hefe", "1 Würfel")), 2);
+	shoppingList.add(recipe("Pizza", "2 Personen", new Ingredient("Mehl", "300 g")), 6);
+
+	assertEquals(List.of("0,5 Würfel Hefe", "1,15 kg Mehl"), texts(shoppingList));
+    }
+
+    @Test
+    void recipesWithoutValidNumberOfPortionsAreNotScaled() {
+	final ShoppingList shoppingList = new ShoppingList();
+	shoppingList.add(recipe("Brot", "viele", new Ingredient("Mehl", "500 g")), 2);
+	shoppingList.add(recipe("Kuchen", "0", new Ingredient("Zucker", "200 g")), 8);
+
+	assertEquals(List.of("500 g Mehl", "200 g Zucker"), texts(shoppingList));
+    }
+
+    private static List<String> texts(final ShoppingList shoppingList) {
+	final List<String> texts = new ArrayList<>();
+	for (final ShoppingList.Item item : shoppingList.getItems()) {
+	    texts.add(item.amount() + " " + item.name());
+	}
+	return texts;
+    }
+
+    private static Recipe recipe(final String name, final String numberOfPortions, final Ingredient... ingredients) {
+	return new Recipe(name, List.of("Zubereiten."), "30 min", "Backen", numberOfPortions, Set.of(ingredients));
+    }
+}
@@ -0,0 +1,80 @@
+package todo.custom.cook.book.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.util.Functions;
+
+class StepsModelTest {
+    private static final List<String> INSERTED_TEXTS = List.of("Teig", " ", "\n", "\n\n", "Äpfel schälen.\n", "\nOfen vorheizen.", "a\nb\nc", "   \n");
+
+    @Test
+    void initialStepsAreTheNonEmptyLines() throws BadLocationException {
+	final Document document = document("Teig kneten.\n\n  \nBacken.\n");
+	final StepsModel stepsModel = new StepsModel(document);
+
+	assertEquals(List.of("Teig kneten.", "Backen."), stepsModel.getSteps());
+    }
+
+    @Test
+    void stepsMatchAFullParseAfterEveryEdit() throws BadLocationException {
+	final Document document = document("Teig kneten.\nRuhen lassen.\n\nBacken.");
+	final StepsModel stepsModel = new StepsModel(document);
+	final Random random = new Random(42);
+
+	for (int i = 0; i < 2000; i++) {
+	    final int operation = random.nextInt(3);
+	    if (operation == 0 || document.getLength() == 0) {
+		document.insertString(random.nextInt(document.getLength() + 1), INSERTED_TEXTS.get(random.nextInt(INSERTED_TEXTS.size())), null);
+	    } else {
+		final int offset = random.nextInt(document.getLength());
+		final int length = 1 + random.nextInt(Math.min(8, document.getLength() - offset));
+		document.remove(offset, length);
+		if (operation == 2) {
+		    // an edit replaces the removed text
+		    document.insertString(offset, INSERTED_TEXTS.get(random.nextInt(INSERTED_TEXTS.size())), null);
+		}
+	    }
+	    assertEquals(parse(document.getText(0, document.getLength())), stepsModel.getSteps(), "after edit " + i);
+	}
+    }
+
+    @Test
+    void changeListenersSeeTheUpdatedSteps() throws BadLocationException {
+	final Document document = document("Teig kneten.");
+	final StepsModel stepsModel = new StepsModel(document);
+	final List<List<String>> notifiedSteps = new ArrayList<>();
+	stepsModel.addChangeListener(() -> {
+	    notifiedSteps.add(stepsModel.getSteps());
+	});
+
+	document.insertString(document.getLength(), "\nBacken.", null);
+
+	assertEquals(List.of(List.of("Teig kneten.", "Backen.")), notifiedSteps);
+    }
+
+    private static Document document(final String text) throws BadLocationException {
+	final Document document = new PlainDocument();
+	document.insertString(0, text, null);
+	return document;
+    }
+
+    private static List<String> parse(final String text) {
+	final List<String> steps = new ArrayList<>();
+	for (final String line : text.split("\n", -1)) {
+	    if (!Functions.emptyString(line)) {
+		steps.add(line);
+	    }
+	}
+	return steps;
+    }
+}
@@ -0,0 +1,106 @@
+package todo.custom.cook.book.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import todo.custom.cook.book.entity.Ingredient;
+import todo.custom.cook.book.entity.Recipe;
+
+class SortedRecipeIndexTest {
+    @Test
+    void addedRecipesAreOrderedByNameAndByGroup() {
+	final SortedRecipeIndex<String> recipeIndex = new SortedRecipeIndex<>();
+	recipeIndex.update("bread", recipe("Brot", "Backen"));
+	recipeIndex.update("soup", recipe("Tomatensuppe", "Suppe"));
+	recipeIndex.update("cake", recipe("Apfelkuchen", "Backen"));
+
+	assertEquals(List.of("cake", "bread", "soup"), recipeIndex.getKeysByName());
+	assertEquals(0, recipeIndex.getIndexByName("cake"));
+	assertEquals(2, recipeIndex.getIndexByName("soup"));
+	assertEquals(Set.of("Backen", "Suppe"), recipeIndex.getGroupNames());
+	assertEquals(List.of("Apfelkuchen", "Brot"), names(recipeIndex.getRecipes("Backen")));
+	assertEquals(List.of("Apfelkuchen", "Brot", "Tomatensuppe"), recipeIndex.getRecipes()
+		.stream()
+		.map(Recipe::name)
+		.toList());
+    }
+
+    @Test
+    void recipesOfTheSameNameKeepTheOrderTheyWereAddedIn() {
+	final SortedRecipeIndex<String> recipeIndex = new SortedRecipeIndex<>();
+	recipeIndex.update("second", recipe("Brot", "Backen"));
+	recipeIndex.update("first", recipe("Brot", "Backen"));
+	recipeIndex.update("cake", recipe("Apfelkuchen", "Backen"));
+
+	assertEquals(List.of("cake", "second", "first"), recipeIndex.getKeysByName());
+	assertEquals(2, recipeIndex.getIndexByName("first"));
+    }
+
+    @Test
+    void removedRecipesAndEmptyGroupsAreGone() {
+	final SortedRecipeIndex<String> recipeIndex = new SortedRecipeIndex<>();
+	recipeIndex.update("bread", recipe("Brot", "Backen"));
+	recipeIndex.update("soup", recipe("Tomatensuppe", "Suppe"));
+
+	recipeIndex.remove("soup");
+	recipeIndex.remove("unknown");
+
+	assertEquals(List.of("bread"), recipeIndex.getKeysByName());
+	assertEquals(1, recipeIndex.size());
+	assertNull(recipeIndex.get("soup"));
+	assertEquals(-1, recipeIndex.getIndexByName("soup"));
+	assertEquals(Set.of("Backen"), recipeIndex.getGroupNames());
+	assertEquals(List.of(), recipeIndex.getRecipes("Suppe"));
+    }
+
+    @Test
+    void renamedRecipesMoveToTheirNewPosition() {
+	final SortedRecipeIndex<String> recipeIndex = new SortedRecipeIndex<>();
+	recipeIndex.update("bread", recipe("Brot", "Backen"));
+	recipeIndex.update("cake", recipe("Apfelkuchen", "Backen"));
+	recipeIndex.update("soup", recipe("Tomatensuppe", "Suppe"));
+
+	recipeIndex.update("cake", recipe("Zwetschgenkuchen", "Kuchen"));
+
+	assertEquals(List.of("bread", "soup", "cake"), recipeIndex.getKeysByName());
+	assertEquals(2, recipeIndex.getIndexByName("cake"));
+	assertEquals("Zwetschgenkuchen", recipeIndex.get("cake")
+		.name());
+	assertEquals(Set.of("Backen", "Kuchen", "Suppe"), recipeIndex.getGroupNames());
+	assertEquals(List.of("Brot"), names(recipeIndex.getRecipes("Backen")));
+	assertEquals(List.of("Zwetschgenkuchen"), names(recipeIndex.getRecipes("Kuchen")));
+    }
+
+    @Test
+    void copiesAreIndependentOfTheOriginal() {
+	final SortedRecipeIndex<String> recipeIndex = new SortedRecipeIndex<>();
+	recipeIndex.update("bread", recipe("Brot", "Backen"));
+	recipeIndex.update("cake", recipe("Apfelkuchen", "Backen"));
+
+	final SortedRecipeIndex<String> copiedRecipeIndex = recipeIndex.copy();
+	copiedRecipeIndex.update("cake", recipe("Zwetschgenkuchen", "Backen"));
+	copiedRecipeIndex.remove("bread");
+
+	assertEquals(List.of("cake", "bread"), recipeIndex.getKeysByName());
+	assertEquals(List.of("Apfelkuchen", "Brot"), names(recipeIndex.getRecipes("Backen")));
+	assertEquals(List.of("Zwetschgenkuchen"), names(copiedRecipeIndex.getRecipes("Backen")));
+    }
+
+    private static List<String> names(final List<SortedRecipeIndex.SortedRecipe> sortedRecipes) {
+	return sortedRecipes.stream()
+		.map(sortedRecipe -> {
+		    return sortedRecipe.recipe()
+			    .name();
+		})
+		.toList();
+    }
+
+    private static Recipe recipe(final String name, final String group) {
+	return new Recipe(name, List.of("Zubereiten."), "10 min", group, "4", Set.of(new Ingredient("Mehl", "200 g")));
+    }
+}